@@ -0,0 +1,9 @@
+package org.fergoeqs.dto;
+
+import java.io.Serializable;
+import java.util.Map;
+
+public record AggregationGroupDTO(
+        Map<String, Object> keys,
+        Map<String, Number> values
+) implements Serializable {}
\ No newline at end of file
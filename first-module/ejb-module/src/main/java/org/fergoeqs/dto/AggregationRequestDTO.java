@@ -0,0 +1,17 @@
+package org.fergoeqs.dto;
+
+import jakarta.validation.constraints.Min;
+import java.io.Serializable;
+import java.util.List;
+
+public record AggregationRequestDTO(
+        List<String> groupBy,
+        List<String> aggregates,
+        List<FilterConditionDTO> filters,
+        @Min(1) Integer turnoverBucketSize,
+        String dateBucket,
+        String orderBy,
+        String direction,
+        @Min(0) Integer page,
+        @Min(1) Integer size
+) implements Serializable {}
\ No newline at end of file
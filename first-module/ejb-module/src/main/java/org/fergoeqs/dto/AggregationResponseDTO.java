@@ -0,0 +1,11 @@
+package org.fergoeqs.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+public record AggregationResponseDTO(
+        List<AggregationGroupDTO> groups,
+        Integer page,
+        Integer size,
+        Boolean hasNext
+) implements Serializable {}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package org.fergoeqs.dto;
+
+import java.io.Serializable;
+
+public record BulkItemResultDTO(
+        int index,
+        Long id,
+        BulkItemStatus status,
+        String error
+) implements Serializable {}
\ No newline at end of file
@@ -0,0 +1,11 @@
+package org.fergoeqs.dto;
+
+public enum BulkItemStatus {
+    CREATED,
+    UPDATED,
+    DELETED,
+    INVALID,
+    CONFLICT,
+    NOT_FOUND,
+    FAILED
+}
\ No newline at end of file
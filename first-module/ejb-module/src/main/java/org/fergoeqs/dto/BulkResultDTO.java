@@ -0,0 +1,10 @@
+package org.fergoeqs.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+public record BulkResultDTO(
+        int succeeded,
+        int failed,
+        List<BulkItemResultDTO> items
+) implements Serializable {}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package org.fergoeqs.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import java.io.Serializable;
+
+public record BulkUpdateItemDTO(
+        @NotNull Long id,
+        @NotNull @Valid OrganizationRequestDTO organization
+) implements Serializable {}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package org.fergoeqs.dto;
+
+public enum CountMode {
+    EXACT,
+    NONE,
+    ESTIMATED
+}
\ No newline at end of file
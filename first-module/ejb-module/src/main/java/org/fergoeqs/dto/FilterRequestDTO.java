@@ -8,5 +8,7 @@ public record FilterRequestDTO(
         List<FilterConditionDTO> filters,
         List<SortOptionDTO> sort,
         @Min(0) Integer page,
-        @Min(1) Integer size
+        @Min(1) Integer size,
+        String cursor,
+        CountMode countMode
 ) implements Serializable {}
\ No newline at end of file
@@ -0,0 +1,504 @@
+package org.fergoeqs.dto;
+
+import org.fergoeqs.model.OrganizationType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Wire format for organization results crossing the remoting boundary. Records cannot be Externalizable,
+ * so the DTOs hand serialization to the proxies below through writeReplace/readResolve.
+ * Rows are written column by column: ids and creation dates as varint deltas, nullable numbers behind a
+ * null bitmap, strings and enums through a per-column dictionary. Bodies above {@link #COMPRESSION_THRESHOLD}
+ * bytes are deflated.
+ */
+public final class OrganizationCodec {
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final byte PLAIN = 0;
+    private static final byte DEFLATED = 1;
+    static final int COMPRESSION_THRESHOLD = 8 * 1024;
+
+    private static final OrganizationType[] TYPES = OrganizationType.values();
+    private static final CountMode[] COUNT_MODES = CountMode.values();
+
+    private OrganizationCodec() {
+    }
+
+    public static final class PaginatedResponseProxy implements Externalizable {
+
+        private static final long serialVersionUID = 1L;
+
+        private PaginatedResponseDTO response;
+
+        public PaginatedResponseProxy() {
+        }
+
+        PaginatedResponseProxy(PaginatedResponseDTO response) {
+            this.response = response;
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+            writeFramed(out, body -> {
+                writeNullableInt(body, response.totalPages());
+                writeNullableLong(body, response.totalElements());
+                writeNullableInt(body, response.page());
+                writeNullableInt(body, response.size());
+                writeNullableString(body, response.nextCursor());
+                body.writeByte(response.hasNext() == null ? 0 : response.hasNext() ? 2 : 1);
+                body.writeByte(response.countMode() == null ? 0 : response.countMode().ordinal() + 1);
+                writeRows(body, response.organizations());
+            });
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException {
+            DataInput body = readFramed(in);
+            Integer totalPages = readNullableInt(body);
+            Long totalElements = readNullableLong(body);
+            Integer page = readNullableInt(body);
+            Integer size = readNullableInt(body);
+            String nextCursor = readNullableString(body);
+            byte hasNext = body.readByte();
+            byte countMode = body.readByte();
+            List<OrganizationResponseDTO> organizations = readRows(body);
+            response = new PaginatedResponseDTO(organizations, totalPages, totalElements, page, size, nextCursor,
+                    hasNext == 0 ? null : hasNext == 2,
+                    countMode == 0 ? null : COUNT_MODES[countMode - 1]);
+        }
+
+        private Object readResolve() throws ObjectStreamException {
+            return response;
+        }
+    }
+
+    public static final class OrganizationResponseProxy implements Externalizable {
+
+        private static final long serialVersionUID = 1L;
+
+        private OrganizationResponseDTO organization;
+
+        public OrganizationResponseProxy() {
+        }
+
+        OrganizationResponseProxy(OrganizationResponseDTO organization) {
+            this.organization = organization;
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+            writeFramed(out, body -> writeRows(body, List.of(organization)));
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException {
+            List<OrganizationResponseDTO> rows = readRows(readFramed(in));
+            if (rows.size() != 1) {
+                throw new InvalidObjectException("Expected one organization, got " + rows.size());
+            }
+            organization = rows.get(0);
+        }
+
+        private Object readResolve() throws ObjectStreamException {
+            return organization;
+        }
+    }
+
+    private interface BodyWriter {
+        void write(DataOutputStream body) throws IOException;
+    }
+
+    private static void writeFramed(ObjectOutput out, BodyWriter writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream body = new DataOutputStream(bytes)) {
+            writer.write(body);
+        }
+        byte[] plain = bytes.toByteArray();
+
+        out.writeByte(FORMAT_VERSION);
+        if (plain.length > COMPRESSION_THRESHOLD) {
+            byte[] deflated = deflate(plain);
+            if (deflated.length < plain.length) {
+                out.writeByte(DEFLATED);
+                out.writeInt(plain.length);
+                out.writeInt(deflated.length);
+                out.write(deflated);
+                return;
+            }
+        }
+        out.writeByte(PLAIN);
+        out.writeInt(plain.length);
+        out.write(plain);
+    }
+
+    private static DataInput readFramed(ObjectInput in) throws IOException {
+        byte version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new InvalidObjectException("Unsupported organization codec version " + version);
+        }
+        byte encoding = in.readByte();
+        int plainLength = in.readInt();
+        byte[] plain = new byte[plainLength];
+        if (encoding == DEFLATED) {
+            byte[] deflated = new byte[in.readInt()];
+            in.readFully(deflated);
+            inflate(deflated, plain);
+        } else {
+            in.readFully(plain);
+        }
+        return new DataInputStream(new ByteArrayInputStream(plain));
+    }
+
+    static void writeRows(DataOutput out, List<OrganizationResponseDTO> rows) throws IOException {
+        int n = rows == null ? -1 : rows.size();
+        writeVarLong(out, zigZag(n));
+        if (n <= 0) {
+            return;
+        }
+
+        long previousId = 0;
+        for (OrganizationResponseDTO row : rows) {
+            writeVarLong(out, zigZag(row.id() - previousId));
+            previousId = row.id();
+        }
+
+        StringColumn names = new StringColumn();
+        for (OrganizationResponseDTO row : rows) {
+            names.write(out, row.name());
+        }
+
+        BitSet noCoordinates = new BitSet(n);
+        BitSet noX = new BitSet(n);
+        BitSet noY = new BitSet(n);
+        for (int i = 0; i < n; i++) {
+            CoordinatesDTO coordinates = rows.get(i).coordinates();
+            noCoordinates.set(i, coordinates == null);
+            noX.set(i, coordinates == null || coordinates.x() == null);
+            noY.set(i, coordinates == null || coordinates.y() == null);
+        }
+        writeBits(out, noCoordinates, n);
+        writeBits(out, noX, n);
+        writeBits(out, noY, n);
+        for (int i = 0; i < n; i++) {
+            if (!noX.get(i)) {
+                out.writeDouble(rows.get(i).coordinates().x());
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (!noY.get(i)) {
+                out.writeFloat(rows.get(i).coordinates().y());
+            }
+        }
+
+        BitSet noTurnover = new BitSet(n);
+        for (int i = 0; i < n; i++) {
+            noTurnover.set(i, rows.get(i).annualTurnover() == null);
+        }
+        writeBits(out, noTurnover, n);
+        for (int i = 0; i < n; i++) {
+            if (!noTurnover.get(i)) {
+                writeVarLong(out, zigZag(rows.get(i).annualTurnover()));
+            }
+        }
+
+        StringColumn fullNames = new StringColumn();
+        for (OrganizationResponseDTO row : rows) {
+            fullNames.write(out, row.fullName());
+        }
+
+        for (OrganizationResponseDTO row : rows) {
+            out.writeByte(row.type() == null ? 0 : row.type().ordinal() + 1);
+        }
+
+        BitSet noAddress = new BitSet(n);
+        for (int i = 0; i < n; i++) {
+            noAddress.set(i, rows.get(i).postalAddress() == null);
+        }
+        writeBits(out, noAddress, n);
+        StringColumn streets = new StringColumn();
+        for (int i = 0; i < n; i++) {
+            if (!noAddress.get(i)) {
+                streets.write(out, rows.get(i).postalAddress().street());
+            }
+        }
+
+        BitSet noCreationDate = new BitSet(n);
+        for (int i = 0; i < n; i++) {
+            noCreationDate.set(i, rows.get(i).creationDate() == null);
+        }
+        writeBits(out, noCreationDate, n);
+        long previousSecond = 0;
+        for (int i = 0; i < n; i++) {
+            LocalDateTime creationDate = rows.get(i).creationDate();
+            if (creationDate != null) {
+                long second = creationDate.toEpochSecond(ZoneOffset.UTC);
+                writeVarLong(out, zigZag(second - previousSecond));
+                writeVarLong(out, creationDate.getNano());
+                previousSecond = second;
+            }
+        }
+
+        BitSet noVersion = new BitSet(n);
+        for (int i = 0; i < n; i++) {
+            noVersion.set(i, rows.get(i).version() == null);
+        }
+        writeBits(out, noVersion, n);
+        for (int i = 0; i < n; i++) {
+            if (!noVersion.get(i)) {
+                writeVarLong(out, rows.get(i).version());
+            }
+        }
+    }
+
+    static List<OrganizationResponseDTO> readRows(DataInput in) throws IOException {
+        int n = (int) unZigZag(readVarLong(in));
+        if (n < 0) {
+            return null;
+        }
+        if (n == 0) {
+            return new ArrayList<>();
+        }
+
+        long[] ids = new long[n];
+        long previousId = 0;
+        for (int i = 0; i < n; i++) {
+            previousId += unZigZag(readVarLong(in));
+            ids[i] = previousId;
+        }
+
+        StringColumn nameColumn = new StringColumn();
+        String[] names = new String[n];
+        for (int i = 0; i < n; i++) {
+            names[i] = nameColumn.read(in);
+        }
+
+        BitSet noCoordinates = readBits(in, n);
+        BitSet noX = readBits(in, n);
+        BitSet noY = readBits(in, n);
+        Double[] xs = new Double[n];
+        Float[] ys = new Float[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = noX.get(i) ? null : in.readDouble();
+        }
+        for (int i = 0; i < n; i++) {
+            ys[i] = noY.get(i) ? null : in.readFloat();
+        }
+
+        BitSet noTurnover = readBits(in, n);
+        Integer[] turnovers = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            turnovers[i] = noTurnover.get(i) ? null : (int) unZigZag(readVarLong(in));
+        }
+
+        StringColumn fullNameColumn = new StringColumn();
+        String[] fullNames = new String[n];
+        for (int i = 0; i < n; i++) {
+            fullNames[i] = fullNameColumn.read(in);
+        }
+
+        OrganizationType[] types = new OrganizationType[n];
+        for (int i = 0; i < n; i++) {
+            int type = in.readUnsignedByte();
+            types[i] = type == 0 ? null : TYPES[type - 1];
+        }
+
+        BitSet noAddress = readBits(in, n);
+        StringColumn streetColumn = new StringColumn();
+        AddressDTO[] addresses = new AddressDTO[n];
+        for (int i = 0; i < n; i++) {
+            addresses[i] = noAddress.get(i) ? null : new AddressDTO(streetColumn.read(in));
+        }
+
+        BitSet noCreationDate = readBits(in, n);
+        LocalDateTime[] creationDates = new LocalDateTime[n];
+        long previousSecond = 0;
+        for (int i = 0; i < n; i++) {
+            if (!noCreationDate.get(i)) {
+                previousSecond += unZigZag(readVarLong(in));
+                int nanos = (int) readVarLong(in);
+                creationDates[i] = LocalDateTime.ofEpochSecond(previousSecond, nanos, ZoneOffset.UTC);
+            }
+        }
+
+        BitSet noVersion = readBits(in, n);
+        List<OrganizationResponseDTO> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Long version = noVersion.get(i) ? null : readVarLong(in);
+            rows.add(new OrganizationResponseDTO(
+                    ids[i],
+                    names[i],
+                    noCoordinates.get(i) ? null : new CoordinatesDTO(xs[i], ys[i]),
+                    turnovers[i],
+                    fullNames[i],
+                    types[i],
+                    addresses[i],
+                    creationDates[i],
+                    version
+            ));
+        }
+        return rows;
+    }
+
+    // 0 = null, 1 = new value that follows inline and joins the dictionary, k >= 2 = dictionary entry k - 2
+    private static final class StringColumn {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        void write(DataOutput out, String value) throws IOException {
+            if (value == null) {
+                writeVarLong(out, 0);
+                return;
+            }
+            Integer code = codes.get(value);
+            if (code != null) {
+                writeVarLong(out, code + 2);
+                return;
+            }
+            codes.put(value, codes.size());
+            writeVarLong(out, 1);
+            out.writeUTF(value);
+        }
+
+        String read(DataInput in) throws IOException {
+            long code = readVarLong(in);
+            if (code == 0) {
+                return null;
+            }
+            if (code == 1) {
+                String value = in.readUTF();
+                values.add(value);
+                return value;
+            }
+            return values.get((int) (code - 2));
+        }
+    }
+
+    private static void writeBits(DataOutput out, BitSet bits, int n) throws IOException {
+        byte[] bytes = bits.toByteArray();
+        byte[] padded = new byte[(n + 7) / 8];
+        System.arraycopy(bytes, 0, padded, 0, bytes.length);
+        out.write(padded);
+    }
+
+    private static BitSet readBits(DataInput in, int n) throws IOException {
+        byte[] bytes = new byte[(n + 7) / 8];
+        in.readFully(bytes);
+        return BitSet.valueOf(bytes);
+    }
+
+    private static void writeNullableInt(DataOutput out, Integer value) throws IOException {
+        writeNullableLong(out, value == null ? null : value.longValue());
+    }
+
+    private static Integer readNullableInt(DataInput in) throws IOException {
+        Long value = readNullableLong(in);
+        return value == null ? null : value.intValue();
+    }
+
+    private static void writeNullableLong(DataOutput out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeVarLong(out, zigZag(value));
+        }
+    }
+
+    private static Long readNullableLong(DataInput in) throws IOException {
+        return in.readBoolean() ? unZigZag(readVarLong(in)) : null;
+    }
+
+    private static void writeNullableString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new InvalidObjectException("Malformed varint");
+    }
+
+    private static byte[] deflate(byte[] plain) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(plain);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(plain.length / 2);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void inflate(byte[] deflated, byte[] plain) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(deflated);
+            int offset = 0;
+            while (offset < plain.length && !inflater.finished()) {
+                int read = inflater.inflate(plain, offset, plain.length - offset);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new InvalidObjectException("Truncated organization payload");
+                }
+                offset += read;
+            }
+        } catch (DataFormatException e) {
+            throw new InvalidObjectException("Corrupt organization payload: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.fergoeqs.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import org.fergoeqs.model.OrganizationType;
+import java.io.Serializable;
+
+// Every field is optional; null means "leave unchanged", so PATCH cannot clear type or annualTurnover.
+public record OrganizationPatchDTO(
+        @Pattern(regexp = ".*\\S.*") String name,
+        CoordinatesDTO coordinates,
+        @Min(1) Integer annualTurnover,
+        @Pattern(regexp = ".*\\S.*") String fullName,
+        OrganizationType type,
+        AddressDTO postalAddress
+) implements Serializable {}
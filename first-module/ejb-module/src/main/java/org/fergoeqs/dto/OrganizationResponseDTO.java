@@ -12,5 +12,11 @@ public record OrganizationResponseDTO(
         String fullName,
         OrganizationType type,
         AddressDTO postalAddress,
-        LocalDateTime creationDate
-) implements Serializable {}
\ No newline at end of file
+        LocalDateTime creationDate,
+        Long version
+) implements Serializable {
+
+    private Object writeReplace() {
+        return new OrganizationCodec.OrganizationResponseProxy(this);
+    }
+}
@@ -8,5 +8,13 @@ public record PaginatedResponseDTO(
         Integer totalPages,
         Long totalElements,
         Integer page,
-        Integer size
-) implements Serializable {}
\ No newline at end of file
+        Integer size,
+        String nextCursor,
+        Boolean hasNext,
+        CountMode countMode
+) implements Serializable {
+
+    private Object writeReplace() {
+        return new OrganizationCodec.PaginatedResponseProxy(this);
+    }
+}
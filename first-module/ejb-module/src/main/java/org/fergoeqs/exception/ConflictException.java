@@ -0,0 +1,12 @@
+package org.fergoeqs.exception;
+
+import jakarta.ejb.ApplicationException;
+
+// A write that would break a uniqueness rule, e.g. a second organization with the same fullName.
+@ApplicationException(rollback = true)
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
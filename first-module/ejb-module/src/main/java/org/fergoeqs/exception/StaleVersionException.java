@@ -0,0 +1,12 @@
+package org.fergoeqs.exception;
+
+import jakarta.ejb.ApplicationException;
+
+// The row changed since the version the client based its write on.
+@ApplicationException(rollback = true)
+public class StaleVersionException extends RuntimeException {
+
+    public StaleVersionException(String resourceName, Long id, Long expectedVersion) {
+        super(resourceName + " with id " + id + " is no longer at version " + expectedVersion);
+    }
+}
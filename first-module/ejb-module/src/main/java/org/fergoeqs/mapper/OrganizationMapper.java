@@ -4,6 +4,9 @@ import org.fergoeqs.dto.*;
 import org.fergoeqs.model.*;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.Tuple;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 
 @ApplicationScoped
 public class OrganizationMapper {
@@ -32,7 +35,43 @@ public class OrganizationMapper {
                 organization.getFullName(),
                 organization.getType(),
                 toAddressDTO(organization.getPostalAddress()),
-                organization.getCreationDate()
+                organization.getCreationDate(),
+                organization.getVersion()
+        );
+    }
+
+    public OrganizationResponseDTO toResponseDTO(Tuple row) {
+        if (row == null) return null;
+
+        return new OrganizationResponseDTO(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                new CoordinatesDTO(row.get("x", Double.class), row.get("y", Float.class)),
+                row.get("annualTurnover", Integer.class),
+                row.get("fullName", String.class),
+                row.get("type", OrganizationType.class),
+                new AddressDTO(row.get("street", String.class)),
+                row.get("creationDate", LocalDateTime.class),
+                row.get("version", Long.class)
+        );
+    }
+
+    // native row: id, name, x, y, annual_turnover, full_name, type, street, creation_date, version
+    public OrganizationResponseDTO toResponseDTO(Object[] row) {
+        if (row == null) return null;
+
+        return new OrganizationResponseDTO(
+                ((Number) row[0]).longValue(),
+                (String) row[1],
+                new CoordinatesDTO(
+                        row[2] != null ? ((Number) row[2]).doubleValue() : null,
+                        row[3] != null ? ((Number) row[3]).floatValue() : null),
+                row[4] != null ? ((Number) row[4]).intValue() : null,
+                (String) row[5],
+                row[6] != null ? OrganizationType.valueOf((String) row[6]) : null,
+                new AddressDTO((String) row[7]),
+                row[8] instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) row[8],
+                ((Number) row[9]).longValue()
         );
     }
 
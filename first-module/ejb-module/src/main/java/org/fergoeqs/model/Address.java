@@ -7,11 +7,13 @@ import jakarta.persistence.Entity;
 import java.io.Serializable;
 
 @Entity
+@Cacheable
 @Table(name = "addresses")
 public class Address implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "addressIdGenerator")
+    @SequenceGenerator(name = "addressIdGenerator", sequenceName = "addresses_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -6,11 +6,13 @@ import jakarta.validation.constraints.NotNull;
 import java.io.Serializable;
 
 @Entity
+@Cacheable
 @Table(name = "coordinates")
 public class Coordinates implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "coordinatesIdGenerator")
+    @SequenceGenerator(name = "coordinatesIdGenerator", sequenceName = "coordinates_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -6,11 +6,13 @@ import java.io.Serializable;
 import java.time.LocalDateTime;
 
 @Entity
+@Cacheable
 @Table(name = "organizations")
 public class Organization implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "organizationIdGenerator")
+    @SequenceGenerator(name = "organizationIdGenerator", sequenceName = "organizations_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Name cannot be null or empty")
@@ -42,6 +44,11 @@ public class Organization implements Serializable {
     @Column(name = "creation_date", nullable = false, updatable = false)
     private LocalDateTime creationDate;
 
+    // the default lets hbm2ddl add the column to a table that already has rows
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     public Organization() {
         this.creationDate = LocalDateTime.now();
     }
@@ -77,4 +84,6 @@ public class Organization implements Serializable {
 
     public LocalDateTime getCreationDate() { return creationDate; }
     public void setCreationDate(LocalDateTime creationDate) { this.creationDate = creationDate; }
+
+    public Long getVersion() { return version; }
 }
\ No newline at end of file
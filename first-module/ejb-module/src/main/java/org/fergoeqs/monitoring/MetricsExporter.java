@@ -0,0 +1,56 @@
+package org.fergoeqs.monitoring;
+
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import org.fergoeqs.metrics.Metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Logger;
+
+// The EJB tier has no HTTP endpoints of its own, so Prometheus scrapes this small server on METRICS_PORT.
+@Singleton
+@Startup
+public class MetricsExporter {
+
+    private static final Logger LOGGER = Logger.getLogger(MetricsExporter.class.getName());
+
+    private HttpServer server;
+
+    @PostConstruct
+    public void start() {
+        int port = Integer.parseInt(getEnv("METRICS_PORT", "9464"));
+        try {
+            server = HttpServer.create(new InetSocketAddress(port), 0);
+            server.createContext("/metrics", exchange -> {
+                byte[] body = Metrics.scrape().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", Metrics.CONTENT_TYPE);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+            LOGGER.info("Serving /metrics on port " + port);
+        } catch (IOException e) {
+            LOGGER.warning("Could not start exporter on port " + port + ": " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    private static String getEnv(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return (value != null && !value.isEmpty()) ? value : defaultValue;
+    }
+}
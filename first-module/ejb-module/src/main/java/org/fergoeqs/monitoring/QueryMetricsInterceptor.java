@@ -0,0 +1,23 @@
+package org.fergoeqs.monitoring;
+
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.InvocationContext;
+import org.fergoeqs.metrics.Metrics;
+
+// Times every repository method; for methods returning a Stream this covers opening the query, not draining it.
+public class QueryMetricsInterceptor {
+
+    @AroundInvoke
+    public Object time(InvocationContext context) throws Exception {
+        String query = context.getMethod().getName();
+        long started = System.nanoTime();
+        try {
+            return context.proceed();
+        } catch (Exception e) {
+            Metrics.QUERY_ERRORS.labels(query).increment();
+            throw e;
+        } finally {
+            Metrics.QUERY_SECONDS.labels(query).recordSince(started);
+        }
+    }
+}
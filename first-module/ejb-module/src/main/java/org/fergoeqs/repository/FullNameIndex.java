@@ -0,0 +1,193 @@
+package org.fergoeqs.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Negative cache for fullName lookups: a Bloom filter over every stored fullName, built at startup and fed
+ * by every write. "Not present" answers skip the database; "maybe" answers still go to the database.
+ * Deleted or renamed names cannot be removed from the filter, so it is rebuilt once they make up too much
+ * of it. A "not present" answer is only right if every write goes through this node, so the filter is built
+ * only when FULLNAME_INDEX_SINGLE_NODE=true; with several ejb-servers on one database every lookup goes to it.
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class FullNameIndex {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final long MIN_CAPACITY = 1024;
+    // rebuild once stale names or inserts past the sizing would push the false-positive rate up noticeably
+    private static final double STALE_RATIO = 0.2;
+    private static final int FETCH_SIZE = 1000;
+
+    @PersistenceContext(unitName = "organizationPU")
+    private EntityManager entityManager;
+
+    private final boolean enabled = Boolean.parseBoolean(System.getenv("FULLNAME_INDEX_SINGLE_NODE"));
+
+    @Resource
+    private TransactionSynchronizationRegistry transactions;
+
+    private volatile BloomFilter filter;
+    private volatile long capacity;
+
+    // guards the filter swap and the two collections below, so a write is either in the scanned rows or drained after it
+    private final Object writes = new Object();
+    // names written by transactions that have not completed yet, which a rebuild's scan may not see
+    private final Map<String, Integer> uncommitted = new HashMap<>();
+    // names written since the running rebuild started
+    private List<String> captured;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final LongAdder entries = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+
+    private final LongAdder negatives = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    @Schedule(minute = "*/5", hour = "*", persistent = false)
+    public void rebuildIfDegraded() {
+        if (stale.sum() + Math.max(0, entries.sum() - capacity) > capacity * STALE_RATIO) {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        if (!enabled || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // start capturing before the count and the scan: a transaction still open now may commit after the
+            // scan's snapshot, and so may every write made from here on
+            synchronized (writes) {
+                captured = new ArrayList<>(uncommitted.keySet());
+            }
+            long rows = entityManager.createQuery("SELECT COUNT(o) FROM Organization o", Long.class).getSingleResult();
+            long newCapacity = Math.max(MIN_CAPACITY, rows * 2);
+            BloomFilter next = new BloomFilter(newCapacity, FALSE_POSITIVE_RATE);
+            long loaded = 0;
+            try (Stream<String> names = entityManager.createQuery("SELECT o.fullName FROM Organization o", String.class)
+                    .setHint("org.hibernate.fetchSize", FETCH_SIZE)
+                    .getResultStream()) {
+                for (String name : (Iterable<String>) names::iterator) {
+                    next.add(name);
+                    loaded++;
+                }
+            }
+            synchronized (writes) {
+                for (String name : captured) {
+                    next.add(name);
+                }
+                capacity = newCapacity;
+                filter = next;
+            }
+            entries.reset();
+            entries.add(loaded);
+            stale.reset();
+            rebuilds.increment();
+        } finally {
+            synchronized (writes) {
+                captured = null;
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    public boolean mightContain(String fullName) {
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(fullName)) {
+            negatives.increment();
+            return false;
+        }
+        lookups.increment();
+        return true;
+    }
+
+    // called with the database answer for a name mightContain let through
+    public void recordLookup(boolean found) {
+        if (!found) {
+            falsePositives.increment();
+        }
+    }
+
+    public void add(String fullName) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (writes) {
+            BloomFilter current = filter;
+            if (current != null) {
+                current.add(fullName);
+            }
+            if (captured != null) {
+                captured.add(fullName);
+            }
+            if (transactions.getTransactionStatus() == Status.STATUS_ACTIVE) {
+                uncommitted.merge(fullName, 1, Integer::sum);
+                transactions.registerInterposedSynchronization(new Completion(fullName));
+            }
+        }
+        entries.increment();
+    }
+
+    public void markRemoved(long count) {
+        stale.add(count);
+    }
+
+    public Map<String, Long> statistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("fullNameIndex.entries", entries.sum());
+        statistics.put("fullNameIndex.stale", stale.sum());
+        statistics.put("fullNameIndex.negatives", negatives.sum());
+        statistics.put("fullNameIndex.lookups", lookups.sum());
+        statistics.put("fullNameIndex.falsePositives", falsePositives.sum());
+        statistics.put("fullNameIndex.rebuilds", rebuilds.sum());
+        return statistics;
+    }
+
+    private final class Completion implements Synchronization {
+
+        private final String fullName;
+
+        Completion(String fullName) {
+            this.fullName = fullName;
+        }
+
+        @Override
+        public void beforeCompletion() {
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            synchronized (writes) {
+                uncommitted.computeIfPresent(fullName, (name, count) -> count == 1 ? null : count - 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.fergoeqs.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.Map;
+
+// Ids used to come from identity columns; move the pooled sequences past the existing rows so they never collide.
+@Singleton
+@Startup
+public class IdSequenceInitializer {
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "organizations_seq", "organizations",
+            "addresses_seq", "addresses",
+            "coordinates_seq", "coordinates"
+    );
+
+    @PersistenceContext(unitName = "organizationPU")
+    private EntityManager entityManager;
+
+    @PostConstruct
+    public void alignSequences() {
+        SEQUENCES.forEach((sequence, table) -> entityManager.createNativeQuery(
+                "SELECT setval('" + sequence + "', GREATEST("
+                        + "(SELECT COALESCE(MAX(id), 1) FROM " + table + "), "
+                        + "(SELECT last_value FROM " + sequence + ")))"
+        ).getSingleResult());
+    }
+}
@@ -0,0 +1,116 @@
+package org.fergoeqs.repository;
+
+import org.fergoeqs.model.Organization;
+import org.fergoeqs.monitoring.QueryMetricsInterceptor;
+
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptors;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Every call is its own transaction so a failed chunk can be retried row by row without losing the others.
+@Stateless
+@Interceptors(QueryMetricsInterceptor.class)
+@TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+public class OrganizationBulkRepository {
+
+    // same as hibernate.jdbc.batch_size and the id allocationSize
+    private static final int BATCH_SIZE = 50;
+
+    @PersistenceContext(unitName = "organizationPU")
+    private EntityManager entityManager;
+
+    @Inject
+    private FullNameIndex fullNameIndex;
+
+    public List<Long> insertAll(List<Organization> organizations) {
+        List<Long> ids = new ArrayList<>(organizations.size());
+        for (int i = 0; i < organizations.size(); i++) {
+            Organization organization = organizations.get(i);
+            fullNameIndex.add(organization.getFullName());
+            entityManager.persist(organization);
+            ids.add(organization.getId());
+            if ((i + 1) % BATCH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return ids;
+    }
+
+    public Set<Long> updateAll(Map<Long, Organization> changes) {
+        List<Long> ids = new ArrayList<>(changes.keySet());
+        Set<Long> updated = new HashSet<>();
+
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            List<Organization> existing = entityManager.createQuery(
+                    "SELECT o FROM Organization o JOIN FETCH o.coordinates JOIN FETCH o.postalAddress WHERE o.id IN :ids",
+                    Organization.class
+            ).setParameter("ids", batch).getResultList();
+
+            for (Organization organization : existing) {
+                Organization desired = changes.get(organization.getId());
+                if (!organization.getFullName().equals(desired.getFullName())) {
+                    fullNameIndex.add(desired.getFullName());
+                    fullNameIndex.markRemoved(1);
+                }
+                organization.setName(desired.getName());
+                organization.setAnnualTurnover(desired.getAnnualTurnover());
+                organization.setFullName(desired.getFullName());
+                organization.setType(desired.getType());
+                organization.getCoordinates().setX(desired.getCoordinates().getX());
+                organization.getCoordinates().setY(desired.getCoordinates().getY());
+                organization.getPostalAddress().setStreet(desired.getPostalAddress().getStreet());
+                // child rows change in place, so the owner's version would otherwise stay the same
+                entityManager.lock(organization, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+                updated.add(organization.getId());
+            }
+
+            entityManager.flush();
+            entityManager.clear();
+        }
+        return updated;
+    }
+
+    public Set<Long> deleteAllByIds(Collection<Long> ids) {
+        List<Object[]> rows = entityManager.createQuery(
+                "SELECT o.id, o.coordinates.id, o.postalAddress.id FROM Organization o WHERE o.id IN :ids",
+                Object[].class
+        ).setParameter("ids", ids).getResultList();
+        if (rows.isEmpty()) {
+            return Set.of();
+        }
+
+        Set<Long> organizationIds = new HashSet<>();
+        List<Long> coordinatesIds = new ArrayList<>();
+        List<Long> addressIds = new ArrayList<>();
+        for (Object[] row : rows) {
+            organizationIds.add((Long) row[0]);
+            coordinatesIds.add((Long) row[1]);
+            addressIds.add((Long) row[2]);
+        }
+
+        // bulk statements do not cascade, children go explicitly after their owners
+        entityManager.createQuery("DELETE FROM Organization o WHERE o.id IN :ids")
+                .setParameter("ids", organizationIds).executeUpdate();
+        entityManager.createQuery("DELETE FROM Coordinates c WHERE c.id IN :ids")
+                .setParameter("ids", coordinatesIds).executeUpdate();
+        entityManager.createQuery("DELETE FROM Address a WHERE a.id IN :ids")
+                .setParameter("ids", addressIds).executeUpdate();
+        fullNameIndex.markRemoved(organizationIds.size());
+        return organizationIds;
+    }
+}
@@ -1,35 +1,101 @@
 package org.fergoeqs.repository;
 
+import org.fergoeqs.dto.AddressDTO;
+import org.fergoeqs.dto.AggregationRequestDTO;
+import org.fergoeqs.dto.CoordinatesDTO;
 import org.fergoeqs.dto.FilterRequestDTO;
+import org.fergoeqs.dto.OrganizationPatchDTO;
+import org.fergoeqs.exception.ConflictException;
 import org.fergoeqs.model.Address;
 import org.fergoeqs.model.Coordinates;
 import org.fergoeqs.model.Organization;
+import org.fergoeqs.monitoring.QueryMetricsInterceptor;
+import org.fergoeqs.specification.KeysetCursor;
 import org.fergoeqs.specification.OrganizationSpecifications;
+import org.fergoeqs.specification.QueryBindings;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 
 import jakarta.ejb.Stateless;
 import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptors;
+import jakarta.persistence.Cache;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.PersistenceUnitUtil;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.*;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @Stateless
+@Interceptors(QueryMetricsInterceptor.class)
 public class OrganizationRepository {
 
+    private static final String NATIVE_FROM = " FROM organizations o"
+            + " JOIN coordinates c ON c.id = o.coordinates_id"
+            + " JOIN addresses a ON a.id = o.address_id";
+
+    // results are dropped by Hibernate whenever one of the queried tables is written through the persistence context
+    private static final String CACHEABLE_HINT = "org.hibernate.cacheable";
+
+    private static final int IN_LIST_CHUNK = 1000;
+
+    private static final Map<String, String> AGGREGATES = Map.of(
+            "count", "COUNT(*)",
+            "sum", "SUM(o.annual_turnover)",
+            "avg", "AVG(o.annual_turnover)",
+            "min", "MIN(o.annual_turnover)",
+            "max", "MAX(o.annual_turnover)"
+    );
+
+    private static final Set<String> DATE_BUCKETS = Set.of("day", "week", "month", "quarter", "year");
+
+    private static final String AGGREGATION_FIELDS_HINT =
+            "id, name, coordinates.x, coordinates.y, annualTurnover, fullName, type, postalAddress.street, creationDate";
+
+    private static final String FETCH_SIZE_HINT = "org.hibernate.fetchSize";
+
+    // tables a native write touches; Hibernate then invalidates only their cached query results
+    private static final String NATIVE_SPACES_HINT = "org.hibernate.query.native.spaces";
+    private static final String[] WRITE_SPACES = {"organizations", "coordinates", "addresses"};
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
     @PersistenceContext(unitName = "organizationPU")
     private EntityManager entityManager;
 
     @Inject
     private OrganizationSpecifications organizationSpecifications;
 
+    @Inject
+    private FullNameIndex fullNameIndex;
+
     public List<Organization> findAll() {
         return entityManager.createQuery("SELECT o FROM Organization o", Organization.class)
                 .getResultList();
     }
 
     public Organization save(Organization organization) {
+        fullNameIndex.add(organization.getFullName());
         if (organization.getId() == null) {
             entityManager.persist(organization);
             return organization;
@@ -38,6 +104,143 @@ public class OrganizationRepository {
         }
     }
 
+    // persist and flush right away so a duplicate fullName surfaces here instead of at commit
+    public Organization insert(Organization organization) {
+        try {
+            entityManager.persist(organization);
+            entityManager.flush();
+        } catch (PersistenceException e) {
+            if (isUniqueViolation(e)) {
+                throw new ConflictException("Organization with fullName '" + organization.getFullName() + "' already exists");
+            }
+            throw e;
+        }
+        fullNameIndex.add(organization.getFullName());
+        return organization;
+    }
+
+    /**
+     * Updates the organization and its coordinates and address rows in one statement and returns the new state
+     * in {@link org.fergoeqs.mapper.OrganizationMapper#toResponseDTO(Object[])} column order. With {@code partial} a null field keeps
+     * the stored value; otherwise every field is written as given. An empty result means the id does not exist
+     * or is not at {@code expectedVersion}.
+     */
+    public Optional<Object[]> updateInPlace(Long id, OrganizationPatchDTO changes, boolean partial, Long expectedVersion) {
+        CoordinatesDTO coordinates = changes.coordinates();
+        AddressDTO postalAddress = changes.postalAddress();
+        Query query = entityManager.createNativeQuery(
+                "WITH prev AS ("
+                        + " SELECT id, full_name FROM organizations WHERE id = ?1 FOR UPDATE"
+                        + "), o AS ("
+                        + " UPDATE organizations org SET"
+                        + " name = " + assign("?2", "varchar", "org.name", partial) + ","
+                        + " annual_turnover = " + assign("?3", "integer", "org.annual_turnover", partial) + ","
+                        + " full_name = " + assign("?4", "varchar", "org.full_name", partial) + ","
+                        + " type = " + assign("?5", "varchar", "org.type", partial) + ","
+                        + " version = org.version + 1"
+                        + " FROM prev WHERE org.id = prev.id AND (CAST(?9 AS bigint) IS NULL OR org.version = ?9)"
+                        + " RETURNING org.id, org.name, org.annual_turnover, org.full_name, org.type, org.creation_date,"
+                        + " org.version, org.coordinates_id, org.address_id, prev.full_name AS previous_full_name"
+                        + "), c AS ("
+                        + " UPDATE coordinates SET"
+                        + " x_coordinate = " + assign("?6", "double precision", "coordinates.x_coordinate", partial) + ","
+                        + " y_coordinate = " + assign("?7", "real", "coordinates.y_coordinate", partial)
+                        + " FROM o WHERE coordinates.id = o.coordinates_id"
+                        + " RETURNING coordinates.x_coordinate, coordinates.y_coordinate"
+                        + "), a AS ("
+                        + " UPDATE addresses SET street = " + assign("?8", "varchar", "addresses.street", partial)
+                        + " FROM o WHERE addresses.id = o.address_id"
+                        + " RETURNING addresses.street"
+                        + ") SELECT o.id, o.name, c.x_coordinate, c.y_coordinate, o.annual_turnover, o.full_name, o.type,"
+                        + " a.street, o.creation_date, o.version, o.coordinates_id, o.address_id, o.previous_full_name"
+                        + " FROM o, c, a"
+        );
+        query.setHint(NATIVE_SPACES_HINT, WRITE_SPACES);
+        query.setParameter(1, id);
+        query.setParameter(2, changes.name());
+        query.setParameter(3, changes.annualTurnover());
+        query.setParameter(4, changes.fullName());
+        query.setParameter(5, changes.type() != null ? changes.type().name() : null);
+        query.setParameter(6, coordinates != null ? coordinates.x() : null);
+        query.setParameter(7, coordinates != null ? coordinates.y() : null);
+        query.setParameter(8, postalAddress != null ? postalAddress.street() : null);
+        query.setParameter(9, expectedVersion);
+
+        List<?> rows;
+        try {
+            rows = query.getResultList();
+        } catch (PersistenceException e) {
+            if (isUniqueViolation(e)) {
+                throw new ConflictException("Organization with fullName '" + changes.fullName() + "' already exists");
+            }
+            throw e;
+        }
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Object[] row = (Object[]) rows.get(0);
+        evict(id, ((Number) row[10]).longValue(), ((Number) row[11]).longValue());
+        String fullName = (String) row[5];
+        if (!fullName.equals(row[12])) {
+            fullNameIndex.add(fullName);
+            fullNameIndex.markRemoved(1);
+        }
+        return Optional.of(row);
+    }
+
+    // deletes the organization with its coordinates and address in one statement
+    public boolean deleteInPlace(Long id, Long expectedVersion) {
+        Query query = entityManager.createNativeQuery(
+                "WITH o AS ("
+                        + " DELETE FROM organizations WHERE id = ?1 AND (CAST(?2 AS bigint) IS NULL OR version = ?2)"
+                        + " RETURNING coordinates_id, address_id"
+                        + "), c AS (DELETE FROM coordinates WHERE id IN (SELECT coordinates_id FROM o))"
+                        + ", a AS (DELETE FROM addresses WHERE id IN (SELECT address_id FROM o))"
+                        + " SELECT coordinates_id, address_id FROM o"
+        );
+        query.setHint(NATIVE_SPACES_HINT, WRITE_SPACES);
+        query.setParameter(1, id);
+        query.setParameter(2, expectedVersion);
+        List<?> rows = query.getResultList();
+        if (rows.isEmpty()) {
+            return false;
+        }
+        Object[] row = (Object[]) rows.get(0);
+        evict(id, ((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+        fullNameIndex.markRemoved(1);
+        return true;
+    }
+
+    // only used to explain why a version-checked write matched nothing
+    public Optional<Long> findVersion(Long id) {
+        List<?> rows = entityManager.createNativeQuery("SELECT version FROM organizations WHERE id = ?1")
+                .setParameter(1, id)
+                .getResultList();
+        return rows.isEmpty() ? Optional.empty() : Optional.of(((Number) rows.get(0)).longValue());
+    }
+
+    private static String assign(String parameter, String sqlType, String column, boolean partial) {
+        String typed = "CAST(" + parameter + " AS " + sqlType + ")";
+        return partial ? "COALESCE(" + typed + ", " + column + ")" : typed;
+    }
+
+    private void evict(Long organizationId, Long coordinatesId, Long addressId) {
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        cache.evict(Organization.class, organizationId);
+        cache.evict(Coordinates.class, coordinatesId);
+        cache.evict(Address.class, addressId);
+    }
+
+    private static boolean isUniqueViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && UNIQUE_VIOLATION.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public Optional<Organization> findById(Long id) {
         Organization organization = entityManager.find(Organization.class, id);
         return Optional.ofNullable(organization);
@@ -47,11 +250,13 @@ public class OrganizationRepository {
         Organization organization = entityManager.find(Organization.class, id);
         if (organization != null) {
             entityManager.remove(organization);
+            fullNameIndex.markRemoved(1);
         }
     }
 
     public void delete(Organization organization) {
         entityManager.remove(entityManager.contains(organization) ? organization : entityManager.merge(organization));
+        fullNameIndex.markRemoved(1);
     }
 
     public Optional<Organization> findFirstByPostalAddressStreet(String street) {
@@ -70,6 +275,7 @@ public class OrganizationRepository {
                 "SELECT COUNT(o) FROM Organization o WHERE o.postalAddress.street < :street",
                 Long.class
         );
+        query.setHint(CACHEABLE_HINT, true);
         query.setParameter("street", street);
         return query.getSingleResult();
     }
@@ -79,6 +285,7 @@ public class OrganizationRepository {
                 "SELECT COUNT(o) FROM Organization o WHERE o.postalAddress.street = :street",
                 Long.class
         );
+        query.setHint(CACHEABLE_HINT, true);
         query.setParameter("street", street);
         return query.getSingleResult();
     }
@@ -91,21 +298,56 @@ public class OrganizationRepository {
     }
 
     public boolean existsByFullName(String fullName) {
+        if (!fullNameIndex.mightContain(fullName)) {
+            return false;
+        }
         TypedQuery<Long> query = entityManager.createQuery(
-                "SELECT COUNT(o) FROM Organization o WHERE o.fullName = :fullName",
+                "SELECT o.id FROM Organization o WHERE o.fullName = :fullName",
                 Long.class
         );
+        query.setHint(CACHEABLE_HINT, true);
         query.setParameter("fullName", fullName);
-        return query.getSingleResult() > 0;
+        query.setMaxResults(1);
+        boolean found = !query.getResultList().isEmpty();
+        fullNameIndex.recordLookup(found);
+        return found;
+    }
+
+    public Map<String, Long> findIdsByFullNames(Collection<String> fullNames) {
+        Map<String, Long> result = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        for (String fullName : fullNames) {
+            if (fullNameIndex.mightContain(fullName)) {
+                names.add(fullName);
+            }
+        }
+        for (int from = 0; from < names.size(); from += IN_LIST_CHUNK) {
+            List<Object[]> rows = entityManager.createQuery(
+                    "SELECT o.fullName, o.id FROM Organization o WHERE o.fullName IN :fullNames",
+                    Object[].class
+            ).setParameter("fullNames", names.subList(from, Math.min(from + IN_LIST_CHUNK, names.size())))
+                    .getResultList();
+            for (Object[] row : rows) {
+                result.put((String) row[0], (Long) row[1]);
+            }
+        }
+        for (String name : names) {
+            fullNameIndex.recordLookup(result.containsKey(name));
+        }
+        return result;
     }
 
     public Optional<Organization> findByFullName(String fullName) {
+        if (!fullNameIndex.mightContain(fullName)) {
+            return Optional.empty();
+        }
         TypedQuery<Organization> query = entityManager.createQuery(
                 "SELECT o FROM Organization o WHERE o.fullName = :fullName",
                 Organization.class
         );
         query.setParameter("fullName", fullName);
         List<Organization> result = query.getResultList();
+        fullNameIndex.recordLookup(!result.isEmpty());
         return result.isEmpty() ? Optional.empty() : Optional.of(result.get(0));
     }
 
@@ -117,40 +359,269 @@ public class OrganizationRepository {
         Join<Organization, Address> addressJoin = root.join("postalAddress", JoinType.INNER);
         Join<Organization, Coordinates> coordinatesJoin = root.join("coordinates", JoinType.INNER);
 
-        Predicate predicate = organizationSpecifications.buildPredicate(root, cb, filterRequest.filters());
+        QueryBindings bindings = applySearchCriteria(cb, cq, root, filterRequest);
+
+        TypedQuery<Organization> query = entityManager.createQuery(cq);
+        bindings.applyTo(query);
+        applyPaging(query, filterRequest);
+
+        return query.getResultList();
+    }
+
+    // ids whose organization, coordinates and address are all in the second-level cache; the rest are left out
+    // so the caller can fetch them in one batched query instead of one select per association
+    public Map<Long, Organization> findCachedByIds(Collection<Long> ids) {
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        PersistenceUnitUtil units = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        Map<Long, Organization> found = new LinkedHashMap<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            if (id == null || !cache.contains(Organization.class, id)) {
+                continue;
+            }
+            Organization organization = entityManager.find(Organization.class, id);
+            // the associations are lazy proxies here, so reading their ids does not load them
+            if (organization != null
+                    && isCached(cache, units, Coordinates.class, organization.getCoordinates())
+                    && isCached(cache, units, Address.class, organization.getPostalAddress())) {
+                found.put(id, organization);
+            }
+        }
+        return found;
+    }
+
+    private static boolean isCached(Cache cache, PersistenceUnitUtil units, Class<?> type, Object entity) {
+        return entity == null || cache.contains(type, units.getIdentifier(entity));
+    }
+
+    public List<Tuple> findProjectedByIds(Collection<Long> ids) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<Tuple> rows = new ArrayList<>(distinct.size());
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        for (int from = 0; from < distinct.size(); from += IN_LIST_CHUNK) {
+            CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+            Root<Organization> root = cq.from(Organization.class);
+            @SuppressWarnings("rawtypes")
+            ParameterExpression<Collection> idsParameter = cb.parameter(Collection.class, "ids");
+            cq.multiselect(projection(root)).where(root.get("id").in(idsParameter));
+            rows.addAll(entityManager.createQuery(cq)
+                    .setParameter(idsParameter, distinct.subList(from, Math.min(from + IN_LIST_CHUNK, distinct.size())))
+                    .getResultList());
+        }
+        return rows;
+    }
+
+    public List<Tuple> searchProjectedWithFilter(FilterRequestDTO filterRequest) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+        Root<Organization> root = cq.from(Organization.class);
+
+        // same implicit paths as the filter/sort engine, so each association is joined once and no entity is loaded
+        cq.multiselect(projection(root));
+
+        QueryBindings bindings = applySearchCriteria(cb, cq, root, filterRequest);
+
+        // one row past the page tells the caller whether another page exists without counting
+        TypedQuery<Tuple> query = entityManager.createQuery(cq);
+        bindings.applyTo(query);
+        applyPaging(query, filterRequest);
+        query.setMaxResults(query.getMaxResults() + 1);
+
+        return query.getResultList();
+    }
+
+    // forward-only read for exports: no offset, rows come through a server-side cursor fetchSize at a time
+    public Stream<Tuple> streamProjectedWithFilter(FilterRequestDTO filterRequest, int maxRows, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+        Root<Organization> root = cq.from(Organization.class);
+
+        cq.multiselect(projection(root));
+        QueryBindings bindings = applySearchCriteria(cb, cq, root, filterRequest);
+
+        TypedQuery<Tuple> query = entityManager.createQuery(cq);
+        bindings.applyTo(query);
+        query.setMaxResults(maxRows);
+        query.setHint(FETCH_SIZE_HINT, fetchSize);
+
+        return query.getResultStream();
+    }
+
+    private List<Selection<?>> projection(Root<Organization> root) {
+        return List.of(
+                root.get("id").alias("id"),
+                root.get("name").alias("name"),
+                root.get("coordinates").get("x").alias("x"),
+                root.get("coordinates").get("y").alias("y"),
+                root.get("annualTurnover").alias("annualTurnover"),
+                root.get("fullName").alias("fullName"),
+                root.get("type").alias("type"),
+                root.get("postalAddress").get("street").alias("street"),
+                root.get("creationDate").alias("creationDate"),
+                root.get("version").alias("version")
+        );
+    }
+
+    private QueryBindings applySearchCriteria(CriteriaBuilder cb, CriteriaQuery<?> cq, Root<Organization> root,
+                                              FilterRequestDTO filterRequest) {
+        QueryBindings bindings = new QueryBindings();
+        Predicate predicate = organizationSpecifications.buildPredicate(root, cb, filterRequest.filters(), bindings);
+        if (isKeyset(filterRequest)) {
+            KeysetCursor cursor = KeysetCursor.decode(filterRequest.cursor(), filterRequest.sort());
+            predicate = cb.and(predicate, organizationSpecifications.buildKeysetPredicate(root, cb, cursor, bindings));
+        }
         if (predicate != null) {
             cq.where(predicate);
         }
 
-        List<Order> orders = organizationSpecifications.buildOrders(cb, root, filterRequest.sort());
+        List<Order> orders = organizationSpecifications.buildOrders(cb, root, KeysetCursor.sortKeys(filterRequest.sort()));
         if (!orders.isEmpty()) {
             cq.orderBy(orders);
         }
+        return bindings;
+    }
 
-        TypedQuery<Organization> query = entityManager.createQuery(cq);
-
+    private void applyPaging(TypedQuery<?> query, FilterRequestDTO filterRequest) {
         Integer page = filterRequest.page() != null ? filterRequest.page() : 0;
         Integer size = filterRequest.size() != null ? filterRequest.size() : 20;
 
-        if (page != null && size != null) {
-            query.setFirstResult(page * size);
-            query.setMaxResults(size);
+        // with a cursor the range predicate already skips earlier rows, so there is no offset to scan past
+        query.setFirstResult(isKeyset(filterRequest) ? 0 : page * size);
+        query.setMaxResults(size);
+    }
+
+    private boolean isKeyset(FilterRequestDTO filterRequest) {
+        return filterRequest.cursor() != null && !filterRequest.cursor().isBlank();
+    }
+
+    public Long estimateWithFilter(FilterRequestDTO filterRequest) {
+        if (filterRequest.filters() == null || filterRequest.filters().isEmpty()) {
+            Number reltuples = (Number) entityManager.createNativeQuery(
+                    "SELECT reltuples FROM pg_class WHERE oid = to_regclass('organizations')"
+            ).getSingleResult();
+            // -1 means the table has never been vacuumed or analyzed
+            return reltuples != null && reltuples.longValue() >= 0 ? reltuples.longValue() : null;
         }
 
-        return query.getResultList();
+        List<Object> parameters = new ArrayList<>();
+        String where = organizationSpecifications.buildNativeWhere(filterRequest.filters(), parameters);
+        if (where == null) {
+            return null;
+        }
+
+        Query query = entityManager.createNativeQuery("EXPLAIN SELECT 1" + NATIVE_FROM + " WHERE " + where);
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter(i + 1, parameters.get(i));
+        }
+
+        List<?> plan = query.getResultList();
+        if (plan.isEmpty()) {
+            return null;
+        }
+        Matcher rows = PLAN_ROWS.matcher(plan.get(0).toString());
+        return rows.find() ? Long.valueOf(rows.group(1)) : null;
+    }
+
+    // expects a request normalized by the service: groupBy, aggregates, orderBy, direction, page and size all set
+    public List<Object[]> aggregateWithFilter(AggregationRequestDTO request) {
+        List<String> selections = new ArrayList<>();
+        for (String field : request.groupBy()) {
+            selections.add(groupExpression(field, request));
+        }
+        for (String aggregate : request.aggregates()) {
+            String expression = AGGREGATES.get(aggregate);
+            if (expression == null) {
+                throw new IllegalArgumentException("Unsupported aggregate: " + aggregate + ", expected one of " + AGGREGATES.keySet());
+            }
+            selections.add(expression);
+        }
+
+        List<Object> parameters = new ArrayList<>();
+        String where = organizationSpecifications.buildNativeWhere(request.filters(), parameters);
+        if (where == null) {
+            throw new IllegalArgumentException("Aggregation filters support only " + AGGREGATION_FIELDS_HINT);
+        }
+
+        int keyCount = request.groupBy().size();
+        StringBuilder groupBy = new StringBuilder();
+        StringBuilder tieBreak = new StringBuilder();
+        for (int i = 1; i <= keyCount; i++) {
+            groupBy.append(i > 1 ? ", " : "").append(i);
+            tieBreak.append(", ").append(i);
+        }
+        int orderColumn = keyCount + request.aggregates().indexOf(request.orderBy()) + 1;
+        String direction = "asc".equalsIgnoreCase(request.direction()) ? "ASC" : "DESC";
+
+        // ordinal GROUP BY keeps bucket expressions identical between SELECT and GROUP BY
+        Query query = entityManager.createNativeQuery(
+                "SELECT " + String.join(", ", selections) + NATIVE_FROM
+                        + " WHERE " + where
+                        + " GROUP BY " + groupBy
+                        + " ORDER BY " + orderColumn + " " + direction + tieBreak
+        );
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter(i + 1, parameters.get(i));
+        }
+        query.setFirstResult(request.page() * request.size());
+        query.setMaxResults(request.size() + 1);
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        return rows;
     }
+
+    private String groupExpression(String field, AggregationRequestDTO request) {
+        return switch (field) {
+            case "type" -> "o.type";
+            case "postalAddress.street" -> "a.street";
+            case "annualTurnover" -> {
+                if (request.turnoverBucketSize() == null || request.turnoverBucketSize() < 1) {
+                    throw new IllegalArgumentException("turnoverBucketSize is required to group by annualTurnover");
+                }
+                yield "(o.annual_turnover / " + request.turnoverBucketSize() + ") * " + request.turnoverBucketSize();
+            }
+            case "creationDate" -> {
+                if (!DATE_BUCKETS.contains(request.dateBucket())) {
+                    throw new IllegalArgumentException("dateBucket must be one of " + DATE_BUCKETS);
+                }
+                yield "date_trunc('" + request.dateBucket() + "', o.creation_date)";
+            }
+            default -> throw new IllegalArgumentException("Unsupported group-by field: " + field);
+        };
+    }
+
+    public Map<String, Long> cacheStatistics() {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("secondLevelCache.hits", statistics.getSecondLevelCacheHitCount());
+        result.put("secondLevelCache.misses", statistics.getSecondLevelCacheMissCount());
+        result.put("secondLevelCache.puts", statistics.getSecondLevelCachePutCount());
+        result.put("queryCache.hits", statistics.getQueryCacheHitCount());
+        result.put("queryCache.misses", statistics.getQueryCacheMissCount());
+        result.put("queryCache.puts", statistics.getQueryCachePutCount());
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+            if (regionStatistics != null) {
+                result.put("secondLevelCache." + region + ".elements", regionStatistics.getElementCountInMemory());
+            }
+        }
+        return result;
+    }
+
     public Long countWithFilter(FilterRequestDTO filterRequest) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<Long> cq = cb.createQuery(Long.class);
         Root<Organization> root = cq.from(Organization.class);
 
-        Predicate predicate = organizationSpecifications.buildPredicate(root, cb, filterRequest.filters());
+        QueryBindings bindings = new QueryBindings();
+        Predicate predicate = organizationSpecifications.buildPredicate(root, cb, filterRequest.filters(), bindings);
         if (predicate != null) {
             cq.where(predicate);
         }
 
         cq.select(cb.count(root));
 
-        return entityManager.createQuery(cq).getSingleResult();
+        TypedQuery<Long> query = entityManager.createQuery(cq);
+        bindings.applyTo(query);
+        return query.getSingleResult();
     }
 }
\ No newline at end of file
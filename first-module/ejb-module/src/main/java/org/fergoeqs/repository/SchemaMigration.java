@@ -0,0 +1,7 @@
+package org.fergoeqs.repository;
+
+import java.util.List;
+
+// One versioned schema change; statements must be idempotent, the history table only prevents re-running them.
+public record SchemaMigration(int version, String description, List<String> statements) {
+}
@@ -0,0 +1,131 @@
+package org.fergoeqs.repository;
+
+import jakarta.annotation.Resource;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+
+// Runs outside any transaction: CREATE INDEX CONCURRENTLY refuses to run inside one. Statements are applied one at
+// a time in autocommit, so a failed migration is retried from its first statement on the next start.
+@Stateless
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class SchemaMigrationExecutor {
+
+    private static final Logger LOGGER = Logger.getLogger(SchemaMigrationExecutor.class.getName());
+
+    static final String HISTORY_TABLE = "schema_migrations";
+
+    // session advisory lock shared by every node, so only one of them migrates at a time
+    private static final long MIGRATION_LOCK = 7_301_215_001L;
+
+    private static final Pattern CONCURRENT_INDEX =
+            Pattern.compile("CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+CONCURRENTLY\\s+IF\\s+NOT\\s+EXISTS\\s+(\\w+)",
+                    Pattern.CASE_INSENSITIVE);
+
+    @Resource(lookup = "java:jboss/datasources/OrganizationDS")
+    private DataSource dataSource;
+
+    public void applyPending(List<SchemaMigration> migrations) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            // waiting would make this session's statement an old snapshot that the other node's concurrent
+            // index build has to wait for, so a node that finds the lock taken leaves the work to its holder
+            if (!queryBoolean(connection, "SELECT pg_try_advisory_lock(" + MIGRATION_LOCK + ")")) {
+                LOGGER.info("Another node is applying schema migrations, skipping");
+                return;
+            }
+            try {
+                Set<Integer> applied = appliedVersions(connection);
+                for (SchemaMigration migration : migrations) {
+                    if (applied.contains(migration.version())) {
+                        continue;
+                    }
+                    try {
+                        apply(connection, migration);
+                        LOGGER.info("Applied schema migration V" + migration.version() + ": " + migration.description());
+                    } catch (SQLException e) {
+                        // later versions may depend on this one, so stop here and retry on the next deployment
+                        LOGGER.log(Level.WARNING, "Schema migration V" + migration.version()
+                                + " failed, deferring the rest: " + e.getMessage());
+                        return;
+                    }
+                }
+            } finally {
+                queryBoolean(connection, "SELECT pg_advisory_unlock(" + MIGRATION_LOCK + ")");
+            }
+        }
+    }
+
+    private Set<Integer> appliedVersions(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + HISTORY_TABLE + " ("
+                    + "version INTEGER PRIMARY KEY, "
+                    + "description VARCHAR(255) NOT NULL, "
+                    + "applied_at TIMESTAMP NOT NULL DEFAULT now())");
+
+            Set<Integer> applied = new HashSet<>();
+            try (ResultSet versions = statement.executeQuery("SELECT version FROM " + HISTORY_TABLE)) {
+                while (versions.next()) {
+                    applied.add(versions.getInt(1));
+                }
+            }
+            return applied;
+        }
+    }
+
+    private void apply(Connection connection, SchemaMigration migration) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : migration.statements()) {
+                dropInvalidIndex(connection, sql);
+                statement.execute(sql);
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + HISTORY_TABLE + " (version, description) VALUES (?, ?)")) {
+            insert.setInt(1, migration.version());
+            insert.setString(2, migration.description());
+            insert.executeUpdate();
+        }
+    }
+
+    // an interrupted concurrent build leaves an invalid index behind that IF NOT EXISTS would then keep forever
+    private void dropInvalidIndex(Connection connection, String sql) throws SQLException {
+        Matcher matcher = CONCURRENT_INDEX.matcher(sql);
+        if (!matcher.find()) {
+            return;
+        }
+        String index = matcher.group(1);
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT 1 FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname = ? AND NOT i.indisvalid")) {
+            query.setString(1, index);
+            try (ResultSet invalid = query.executeQuery()) {
+                if (!invalid.next()) {
+                    return;
+                }
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + index);
+        }
+        LOGGER.info("Dropped invalid index " + index + " left by an interrupted build");
+    }
+
+    private static boolean queryBoolean(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet result = statement.executeQuery(sql)) {
+            return result.next() && result.getBoolean(1);
+        }
+    }
+}
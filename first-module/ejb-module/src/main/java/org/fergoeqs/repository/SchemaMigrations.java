@@ -0,0 +1,64 @@
+package org.fergoeqs.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Indexes the tables created by hbm2ddl. Every field accepted by the filter engine gets a btree index
+ * (with id appended where it is also a keyset sort key), and the text fields get pg_trgm GIN indexes so
+ * infix {@code like '%value%'} can use an index instead of a sequential scan. Indexes are built CONCURRENTLY,
+ * so a node starting against a live database does not block writes to the table while they are built.
+ * New changes are appended as a new version; an applied version is never changed in what it creates.
+ */
+@Singleton
+@Startup
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class SchemaMigrations {
+
+    private static final Logger LOGGER = Logger.getLogger(SchemaMigrations.class.getName());
+
+    static final List<SchemaMigration> MIGRATIONS = List.of(
+            new SchemaMigration(1, "btree indexes for filter, sort and join columns", List.of(
+                    "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_organizations_name_id ON organizations (name, id)",
+                    "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_organizations_annual_turnover_id ON organizations (annual_turnover, id)",
+                    "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_organizations_type_id ON organizations (type, id)",
+                    "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_organizations_creation_date_id ON organizations (creation_date, id)",
+                    "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_organizations_coordinates_id ON organizations (coordinates_id)",
+                    "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_organizations_address_id ON organizations (address_id)",
+                    "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_coordinates_x ON coordinates (x_coordinate)",
+                    "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_coordinates_y ON coordinates (y_coordinate)",
+                    "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_addresses_street ON addresses (street)"
+            )),
+            new SchemaMigration(2, "pg_trgm GIN indexes for infix like", List.of(
+                    "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+                    "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_organizations_name_trgm ON organizations USING gin (name gin_trgm_ops)",
+                    "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_organizations_full_name_trgm ON organizations USING gin (full_name gin_trgm_ops)",
+                    "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_addresses_street_trgm ON addresses USING gin (street gin_trgm_ops)"
+            )),
+            new SchemaMigration(3, "refresh planner statistics for the new indexes", List.of(
+                    "ANALYZE organizations",
+                    "ANALYZE coordinates",
+                    "ANALYZE addresses"
+            ))
+    );
+
+    @EJB
+    private SchemaMigrationExecutor executor;
+
+    @PostConstruct
+    public void migrate() {
+        try {
+            executor.applyPending(MIGRATIONS);
+        } catch (Exception e) {
+            // indexes only speed queries up, so the service starts without them and retries on the next deployment
+            LOGGER.log(Level.WARNING, "Schema migrations could not run: " + e.getMessage());
+        }
+    }
+}
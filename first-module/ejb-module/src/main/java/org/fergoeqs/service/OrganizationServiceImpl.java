@@ -2,28 +2,65 @@ package org.fergoeqs.service;
 
 import org.fergoeqs.dto.*;
 import org.fergoeqs.exception.ResourceNotFoundException;
+import org.fergoeqs.exception.StaleVersionException;
 import org.fergoeqs.mapper.OrganizationMapper;
 import org.fergoeqs.model.Organization;
+import org.fergoeqs.repository.FullNameIndex;
+import org.fergoeqs.repository.OrganizationBulkRepository;
 import org.fergoeqs.repository.OrganizationRepository;
+import org.fergoeqs.specification.FilterPlanCache;
+import org.fergoeqs.specification.KeysetCursor;
 
+import jakarta.ejb.AsyncResult;
+import jakarta.ejb.Asynchronous;
 import jakarta.ejb.Remote;
 import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
 import jakarta.inject.Inject;
+import jakarta.persistence.Tuple;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Stateless
 @Remote(OrganizationServiceRemote.class)
 public class OrganizationServiceImpl implements OrganizationServiceRemote {
 
+    // rows per transaction; each chunk is flushed in JDBC batches of hibernate.jdbc.batch_size
+    private static final int BULK_CHUNK_SIZE = 500;
+
     @Inject
     private OrganizationRepository organizationRepository;
 
     @Inject
     private OrganizationMapper mapper;
 
+    @Inject
+    private FilterPlanCache filterPlanCache;
+
+    @Inject
+    private OrganizationBulkRepository bulkRepository;
+
+    @Inject
+    private FullNameIndex fullNameIndex;
+
+    @Inject
+    private Validator validator;
+
     @Override
     public String test() {
 
@@ -37,13 +74,14 @@ public class OrganizationServiceImpl implements OrganizationServiceRemote {
     }
 
     @Override
-    public OrganizationResponseDTO createOrganization(OrganizationRequestDTO organizationDTO) {
-        if (organizationRepository.existsByFullName(organizationDTO.fullName())) {
-            throw new IllegalArgumentException("Organization with fullName '" + organizationDTO.fullName() + "' already exists");
-        }
+    public long ping() {
+        return System.currentTimeMillis();
+    }
 
-        Organization organization = mapper.toEntity(organizationDTO);
-        Organization saved = organizationRepository.save(organization);
+    @Override
+    public OrganizationResponseDTO createOrganization(OrganizationRequestDTO organizationDTO) {
+        // the unique constraint on full_name is the duplicate check
+        Organization saved = organizationRepository.insert(mapper.toEntity(organizationDTO));
         return mapper.toResponseDTO(saved);
     }
 
@@ -54,33 +92,274 @@ public class OrganizationServiceImpl implements OrganizationServiceRemote {
         return mapper.toResponseDTO(organization);
     }
 
+    // ids that do not exist are simply absent from the result, the caller decides what that means
+    @Override
+    public List<OrganizationResponseDTO> getOrganizationsByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // hot ids are served from the entity cache, only the misses go to the batched projection query
+        Map<Long, Organization> cached = organizationRepository.findCachedByIds(ids);
+        List<OrganizationResponseDTO> result = cached.values().stream()
+                .map(mapper::toResponseDTO)
+                .collect(Collectors.toCollection(ArrayList::new));
+        List<Long> misses = ids.stream()
+                .filter(id -> id != null && !cached.containsKey(id))
+                .toList();
+        if (!misses.isEmpty()) {
+            organizationRepository.findProjectedByIds(misses).stream()
+                    .map(mapper::toResponseDTO)
+                    .forEach(result::add);
+        }
+        return result;
+    }
+
     @Override
     public OrganizationResponseDTO updateOrganization(Long id, OrganizationRequestDTO organizationDTO) {
-        Organization existing = organizationRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Organization", id));
+        return updateOrganization(id, organizationDTO, null);
+    }
 
-        if (!existing.getFullName().equals(organizationDTO.fullName()) &&
-                organizationRepository.existsByFullName(organizationDTO.fullName())) {
-            throw new IllegalArgumentException("Organization with fullName '" + organizationDTO.fullName() + "' already exists");
-        }
+    @Override
+    public OrganizationResponseDTO updateOrganization(Long id, OrganizationRequestDTO organizationDTO, Long expectedVersion) {
+        OrganizationPatchDTO replacement = new OrganizationPatchDTO(
+                organizationDTO.name(),
+                organizationDTO.coordinates(),
+                organizationDTO.annualTurnover(),
+                organizationDTO.fullName(),
+                organizationDTO.type(),
+                organizationDTO.postalAddress()
+        );
+        return writeInPlace(id, replacement, false, expectedVersion);
+    }
 
-        existing.setName(organizationDTO.name());
-        existing.setCoordinates(mapper.toCoordinatesEntity(organizationDTO.coordinates()));
-        existing.setAnnualTurnover(organizationDTO.annualTurnover());
-        existing.setFullName(organizationDTO.fullName());
-        existing.setType(organizationDTO.type());
-        existing.setPostalAddress(mapper.toAddressEntity(organizationDTO.postalAddress()));
+    @Override
+    public OrganizationResponseDTO patchOrganization(Long id, OrganizationPatchDTO patch, Long expectedVersion) {
+        return writeInPlace(id, patch, true, expectedVersion);
+    }
 
-        Organization updated = organizationRepository.save(existing);
-        return mapper.toResponseDTO(updated);
+    private OrganizationResponseDTO writeInPlace(Long id, OrganizationPatchDTO changes, boolean partial, Long expectedVersion) {
+        return organizationRepository.updateInPlace(id, changes, partial, expectedVersion)
+                .map(mapper::toResponseDTO)
+                .orElseThrow(() -> missedWrite(id, expectedVersion));
     }
 
     @Override
     public void deleteOrganization(Long id) {
-        if (!organizationRepository.findById(id).isPresent()) {
-            throw new ResourceNotFoundException("Organization", id);
+        deleteOrganization(id, null);
+    }
+
+    @Override
+    public void deleteOrganization(Long id, Long expectedVersion) {
+        if (!organizationRepository.deleteInPlace(id, expectedVersion)) {
+            throw missedWrite(id, expectedVersion);
         }
-        organizationRepository.deleteById(id);
+    }
+
+    // a version-checked write matched no row: tell a missing id from a concurrent change
+    private RuntimeException missedWrite(Long id, Long expectedVersion) {
+        if (expectedVersion != null && organizationRepository.findVersion(id).isPresent()) {
+            return new StaleVersionException("Organization", id, expectedVersion);
+        }
+        return new ResourceNotFoundException("Organization", id);
+    }
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public BulkResultDTO createOrganizations(List<OrganizationRequestDTO> organizations) {
+        BulkItemResultDTO[] results = new BulkItemResultDTO[organizations.size()];
+        Map<String, Integer> firstByFullName = new HashMap<>();
+        List<Integer> candidates = new ArrayList<>();
+
+        for (int i = 0; i < organizations.size(); i++) {
+            OrganizationRequestDTO dto = organizations.get(i);
+            String violation = validate(dto);
+            if (violation != null) {
+                results[i] = new BulkItemResultDTO(i, null, BulkItemStatus.INVALID, violation);
+            } else if (firstByFullName.putIfAbsent(dto.fullName(), i) != null) {
+                results[i] = duplicateFullName(i, null, dto.fullName());
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        Map<String, Long> existing = organizationRepository.findIdsByFullNames(firstByFullName.keySet());
+        candidates.removeIf(i -> {
+            String fullName = organizations.get(i).fullName();
+            if (existing.containsKey(fullName)) {
+                results[i] = duplicateFullName(i, null, fullName);
+                return true;
+            }
+            return false;
+        });
+
+        for (List<Integer> chunk : partition(candidates)) {
+            try {
+                List<Long> ids = bulkRepository.insertAll(chunk.stream()
+                        .map(i -> mapper.toEntity(organizations.get(i)))
+                        .collect(Collectors.toList()));
+                for (int k = 0; k < chunk.size(); k++) {
+                    results[chunk.get(k)] = new BulkItemResultDTO(chunk.get(k), ids.get(k), BulkItemStatus.CREATED, null);
+                }
+            } catch (Exception e) {
+                // a row the pre-checks could not catch (e.g. a concurrent insert) broke the chunk, isolate it
+                for (Integer i : chunk) {
+                    try {
+                        Long id = bulkRepository.insertAll(List.of(mapper.toEntity(organizations.get(i)))).get(0);
+                        results[i] = new BulkItemResultDTO(i, id, BulkItemStatus.CREATED, null);
+                    } catch (Exception rowError) {
+                        results[i] = new BulkItemResultDTO(i, null, BulkItemStatus.FAILED, rootMessage(rowError));
+                    }
+                }
+            }
+        }
+
+        return summarize(results);
+    }
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public BulkResultDTO updateOrganizations(List<BulkUpdateItemDTO> organizations) {
+        BulkItemResultDTO[] results = new BulkItemResultDTO[organizations.size()];
+        Map<String, Integer> firstByFullName = new HashMap<>();
+        Set<Long> seenIds = new HashSet<>();
+        List<Integer> candidates = new ArrayList<>();
+
+        for (int i = 0; i < organizations.size(); i++) {
+            BulkUpdateItemDTO item = organizations.get(i);
+            String violation = validate(item);
+            if (violation != null) {
+                results[i] = new BulkItemResultDTO(i, item != null ? item.id() : null, BulkItemStatus.INVALID, violation);
+            } else if (!seenIds.add(item.id())) {
+                results[i] = new BulkItemResultDTO(i, item.id(), BulkItemStatus.INVALID, "Duplicate id in batch");
+            } else if (firstByFullName.putIfAbsent(item.organization().fullName(), i) != null) {
+                results[i] = duplicateFullName(i, item.id(), item.organization().fullName());
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        Map<String, Long> existing = organizationRepository.findIdsByFullNames(firstByFullName.keySet());
+        candidates.removeIf(i -> {
+            BulkUpdateItemDTO item = organizations.get(i);
+            Long owner = existing.get(item.organization().fullName());
+            if (owner != null && !owner.equals(item.id())) {
+                results[i] = duplicateFullName(i, item.id(), item.organization().fullName());
+                return true;
+            }
+            return false;
+        });
+
+        for (List<Integer> chunk : partition(candidates)) {
+            try {
+                applyUpdates(organizations, chunk, results);
+            } catch (Exception e) {
+                for (Integer i : chunk) {
+                    try {
+                        applyUpdates(organizations, List.of(i), results);
+                    } catch (Exception rowError) {
+                        results[i] = new BulkItemResultDTO(i, organizations.get(i).id(), BulkItemStatus.FAILED,
+                                rootMessage(rowError));
+                    }
+                }
+            }
+        }
+
+        return summarize(results);
+    }
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public BulkResultDTO deleteOrganizations(List<Long> ids) {
+        BulkItemResultDTO[] results = new BulkItemResultDTO[ids.size()];
+        Set<Long> seenIds = new HashSet<>();
+        List<Integer> candidates = new ArrayList<>();
+
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (id == null) {
+                results[i] = new BulkItemResultDTO(i, null, BulkItemStatus.INVALID, "id cannot be null");
+            } else if (!seenIds.add(id)) {
+                results[i] = new BulkItemResultDTO(i, id, BulkItemStatus.INVALID, "Duplicate id in batch");
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        for (List<Integer> chunk : partition(candidates)) {
+            try {
+                Set<Long> deleted = bulkRepository.deleteAllByIds(chunk.stream().map(ids::get).collect(Collectors.toList()));
+                for (Integer i : chunk) {
+                    results[i] = deleted.contains(ids.get(i))
+                            ? new BulkItemResultDTO(i, ids.get(i), BulkItemStatus.DELETED, null)
+                            : new BulkItemResultDTO(i, ids.get(i), BulkItemStatus.NOT_FOUND, "Organization not found with id: " + ids.get(i));
+                }
+            } catch (Exception e) {
+                for (Integer i : chunk) {
+                    results[i] = new BulkItemResultDTO(i, ids.get(i), BulkItemStatus.FAILED, rootMessage(e));
+                }
+            }
+        }
+
+        return summarize(results);
+    }
+
+    private void applyUpdates(List<BulkUpdateItemDTO> organizations, List<Integer> chunk, BulkItemResultDTO[] results) {
+        Map<Long, Organization> changes = new HashMap<>();
+        for (Integer i : chunk) {
+            changes.put(organizations.get(i).id(), mapper.toEntity(organizations.get(i).organization()));
+        }
+        Set<Long> updated = bulkRepository.updateAll(changes);
+        for (Integer i : chunk) {
+            Long id = organizations.get(i).id();
+            results[i] = updated.contains(id)
+                    ? new BulkItemResultDTO(i, id, BulkItemStatus.UPDATED, null)
+                    : new BulkItemResultDTO(i, id, BulkItemStatus.NOT_FOUND, "Organization not found with id: " + id);
+        }
+    }
+
+    private String validate(Object item) {
+        if (item == null) {
+            return "Item cannot be null";
+        }
+        Set<ConstraintViolation<Object>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private BulkItemResultDTO duplicateFullName(int index, Long id, String fullName) {
+        return new BulkItemResultDTO(index, id, BulkItemStatus.CONFLICT,
+                "Organization with fullName '" + fullName + "' already exists");
+    }
+
+    private List<List<Integer>> partition(List<Integer> indexes) {
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < indexes.size(); from += BULK_CHUNK_SIZE) {
+            chunks.add(indexes.subList(from, Math.min(from + BULK_CHUNK_SIZE, indexes.size())));
+        }
+        return chunks;
+    }
+
+    private BulkResultDTO summarize(BulkItemResultDTO[] results) {
+        int succeeded = 0;
+        for (BulkItemResultDTO result : results) {
+            if (result.error() == null) {
+                succeeded++;
+            }
+        }
+        return new BulkResultDTO(succeeded, results.length - succeeded, new ArrayList<>(Arrays.asList(results)));
+    }
+
+    private String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
     }
 
     @Override
@@ -104,6 +383,53 @@ public class OrganizationServiceImpl implements OrganizationServiceRemote {
         return resultMap;
     }
 
+    @Override
+    public AggregationResponseDTO aggregateOrganizations(AggregationRequestDTO aggregationRequest) {
+        if (aggregationRequest.groupBy() == null || aggregationRequest.groupBy().isEmpty()) {
+            throw new IllegalArgumentException("groupBy must contain at least one field");
+        }
+        List<String> aggregates = aggregationRequest.aggregates() != null && !aggregationRequest.aggregates().isEmpty()
+                ? aggregationRequest.aggregates()
+                : List.of("count");
+        String orderBy = aggregationRequest.orderBy() != null ? aggregationRequest.orderBy() : aggregates.get(0);
+        if (!aggregates.contains(orderBy)) {
+            throw new IllegalArgumentException("orderBy must be one of the requested aggregates " + aggregates);
+        }
+        int page = aggregationRequest.page() != null ? aggregationRequest.page() : 0;
+        int size = aggregationRequest.size() != null ? aggregationRequest.size() : 20;
+
+        AggregationRequestDTO normalized = new AggregationRequestDTO(
+                aggregationRequest.groupBy(),
+                aggregates,
+                aggregationRequest.filters(),
+                aggregationRequest.turnoverBucketSize(),
+                aggregationRequest.dateBucket() != null ? aggregationRequest.dateBucket().toLowerCase() : "month",
+                orderBy,
+                aggregationRequest.direction() != null ? aggregationRequest.direction() : "desc",
+                page,
+                size
+        );
+
+        List<Object[]> rows = organizationRepository.aggregateWithFilter(normalized);
+        boolean hasNext = rows.size() > size;
+
+        List<AggregationGroupDTO> groups = new ArrayList<>();
+        for (Object[] row : rows.subList(0, Math.min(size, rows.size()))) {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (int i = 0; i < normalized.groupBy().size(); i++) {
+                Object key = row[i];
+                keys.put(normalized.groupBy().get(i), key instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : key);
+            }
+            Map<String, Number> values = new LinkedHashMap<>();
+            for (int i = 0; i < aggregates.size(); i++) {
+                values.put(aggregates.get(i), (Number) row[normalized.groupBy().size() + i]);
+            }
+            groups.add(new AggregationGroupDTO(keys, values));
+        }
+
+        return new AggregationResponseDTO(groups, page, groups.size(), hasNext);
+    }
+
     @Override
     public Long countOrganizationsByAddressLessThan(String street) {
         return organizationRepository.countByPostalAddressStreetLessThan(street);
@@ -118,29 +444,132 @@ public class OrganizationServiceImpl implements OrganizationServiceRemote {
         return organizationRepository.existsByFullName(fullName);
     }
 
+    @Override
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("filterPlan.hits", filterPlanCache.getHits());
+        statistics.put("filterPlan.misses", filterPlanCache.getMisses());
+        statistics.put("filterPlan.size", (long) filterPlanCache.getSize());
+        statistics.putAll(fullNameIndex.statistics());
+        statistics.putAll(organizationRepository.cacheStatistics());
+        return statistics;
+    }
+
+    @Override
+    @Asynchronous
+    public Future<PaginatedResponseDTO> searchOrganizationsAsync(FilterRequestDTO filterRequest) {
+        return new AsyncResult<>(searchOrganizationsWithSorting(filterRequest));
+    }
+
+    @Override
+    @Asynchronous
+    public Future<AggregationResponseDTO> aggregateOrganizationsAsync(AggregationRequestDTO aggregationRequest) {
+        return new AsyncResult<>(aggregateOrganizations(aggregationRequest));
+    }
+
+    @Override
+    @Asynchronous
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public Future<BulkResultDTO> createOrganizationsAsync(List<OrganizationRequestDTO> organizations) {
+        return new AsyncResult<>(createOrganizations(organizations));
+    }
+
+    @Override
+    @Asynchronous
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public Future<BulkResultDTO> updateOrganizationsAsync(List<BulkUpdateItemDTO> organizations) {
+        return new AsyncResult<>(updateOrganizations(organizations));
+    }
+
+    @Override
+    @Asynchronous
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public Future<BulkResultDTO> deleteOrganizationsAsync(List<Long> ids) {
+        return new AsyncResult<>(deleteOrganizations(ids));
+    }
+
+    @Override
+    public PaginatedResponseDTO exportOrganizations(FilterRequestDTO filterRequest, int fetchSize) {
+        int size = filterRequest.size() != null ? filterRequest.size() : 1000;
+        List<OrganizationResponseDTO> organizationDTOs = new ArrayList<>(size);
+        boolean hasNext;
+
+        try (Stream<Tuple> rows = organizationRepository.streamProjectedWithFilter(filterRequest, size + 1, fetchSize)) {
+            Iterator<Tuple> iterator = rows.iterator();
+            while (organizationDTOs.size() < size && iterator.hasNext()) {
+                organizationDTOs.add(mapper.toResponseDTO(iterator.next()));
+            }
+            hasNext = iterator.hasNext();
+        }
+
+        String nextCursor = hasNext
+                ? KeysetCursor.encode(filterRequest.sort(), organizationDTOs.get(organizationDTOs.size() - 1))
+                : null;
+
+        return new PaginatedResponseDTO(
+                organizationDTOs,
+                null,
+                null,
+                null,
+                organizationDTOs.size(),
+                nextCursor,
+                hasNext,
+                CountMode.NONE
+        );
+    }
+
     @Override
     public PaginatedResponseDTO searchOrganizationsWithSorting(FilterRequestDTO filterRequest) {
         try {
-            List<Organization> organizations = organizationRepository.searchWithFilter(filterRequest);
-
-            Long totalCount = organizationRepository.countWithFilter(filterRequest);
+            Integer page = filterRequest.page() != null ? filterRequest.page() : 0;
+            Integer size = filterRequest.size() != null ? filterRequest.size() : 20;
+            CountMode countMode = filterRequest.countMode() != null ? filterRequest.countMode() : CountMode.EXACT;
 
-            List<OrganizationResponseDTO> organizationDTOs = organizations.stream()
+            List<OrganizationResponseDTO> organizationDTOs = organizationRepository.searchProjectedWithFilter(filterRequest)
+                    .stream()
                     .map(mapper::toResponseDTO)
                     .collect(Collectors.toList());
 
-            Integer page = filterRequest.page() != null ? filterRequest.page() : 0;
-            Integer size = filterRequest.size() != null ? filterRequest.size() : 20;
-            int totalPages = (int) Math.ceil((double) totalCount / size);
+            boolean hasNext = organizationDTOs.size() > size;
+            if (hasNext) {
+                organizationDTOs = organizationDTOs.subList(0, size);
+            }
+
+            Long totalCount = null;
+            if (countMode == CountMode.ESTIMATED) {
+                totalCount = organizationRepository.estimateWithFilter(filterRequest);
+                if (totalCount == null) {
+                    countMode = CountMode.EXACT;
+                } else if (filterRequest.cursor() == null) {
+                    // the estimate can never be below what this page has already proven to exist
+                    long seen = (long) page * size + organizationDTOs.size() + (hasNext ? 1 : 0);
+                    totalCount = Math.max(totalCount, seen);
+                }
+            }
+            if (countMode == CountMode.EXACT) {
+                totalCount = organizationRepository.countWithFilter(filterRequest);
+            }
+
+            Integer totalPages = totalCount != null ? (int) Math.ceil((double) totalCount / size) : null;
+
+            String nextCursor = hasNext
+                    ? KeysetCursor.encode(filterRequest.sort(), organizationDTOs.get(organizationDTOs.size() - 1))
+                    : null;
 
             return new PaginatedResponseDTO(
-                    organizationDTOs,
+                    new ArrayList<>(organizationDTOs),
                     totalPages,
                     totalCount,
                     page,
-                    organizationDTOs.size()
+                    organizationDTOs.size(),
+                    nextCursor,
+                    hasNext,
+                    countMode
             );
 
+        } catch (IllegalArgumentException e) {
+            // a malformed cursor or filter is the caller's mistake; the resource answers it with 400
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Error during organization search: " + e.getMessage(), e);
         }
@@ -3,18 +3,40 @@
     import org.fergoeqs.dto.*;
 
     import jakarta.ejb.Remote;
+    import java.util.Collection;
+    import java.util.List;
     import java.util.Map;
+    import java.util.concurrent.Future;
 
     @Remote
     public interface OrganizationServiceRemote {
         OrganizationResponseDTO createOrganization(OrganizationRequestDTO organizationDTO);
         OrganizationResponseDTO getOrganizationById(Long id);
+        List<OrganizationResponseDTO> getOrganizationsByIds(Collection<Long> ids);
         OrganizationResponseDTO updateOrganization(Long id, OrganizationRequestDTO organizationDTO);
+        OrganizationResponseDTO updateOrganization(Long id, OrganizationRequestDTO organizationDTO, Long expectedVersion);
+        OrganizationResponseDTO patchOrganization(Long id, OrganizationPatchDTO patch, Long expectedVersion);
         void deleteOrganization(Long id);
+        void deleteOrganization(Long id, Long expectedVersion);
+        BulkResultDTO createOrganizations(List<OrganizationRequestDTO> organizations);
+        BulkResultDTO updateOrganizations(List<BulkUpdateItemDTO> organizations);
+        BulkResultDTO deleteOrganizations(List<Long> ids);
         void deleteOrganizationByAddress(String street);
         Map<String, Long> groupOrganizationsByFullName();
+        AggregationResponseDTO aggregateOrganizations(AggregationRequestDTO aggregationRequest);
         Long countOrganizationsByAddressLessThan(String street);
         boolean existsByFullName(String fullName);
         PaginatedResponseDTO searchOrganizationsWithSorting(FilterRequestDTO filterRequest);
+        PaginatedResponseDTO exportOrganizations(FilterRequestDTO filterRequest, int fetchSize);
+        Map<String, Long> getStatistics();
+
+        // @Asynchronous variants: the remote call returns at once and the work runs on the EJB server's async pool
+        Future<PaginatedResponseDTO> searchOrganizationsAsync(FilterRequestDTO filterRequest);
+        Future<AggregationResponseDTO> aggregateOrganizationsAsync(AggregationRequestDTO aggregationRequest);
+        Future<BulkResultDTO> createOrganizationsAsync(List<OrganizationRequestDTO> organizations);
+        Future<BulkResultDTO> updateOrganizationsAsync(List<BulkUpdateItemDTO> organizations);
+        Future<BulkResultDTO> deleteOrganizationsAsync(List<Long> ids);
         String test();
+        // cheap round trip for client-side health checks
+        long ping();
     }
\ No newline at end of file
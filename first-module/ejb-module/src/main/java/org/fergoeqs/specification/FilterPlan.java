@@ -0,0 +1,8 @@
+package org.fergoeqs.specification;
+
+import java.util.List;
+
+record FilterPlan(List<CompiledFilter> filters) {
+
+    record CompiledFilter(String[] path, Class<?> javaType, String operator) {}
+}
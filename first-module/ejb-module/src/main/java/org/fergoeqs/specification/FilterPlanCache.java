@@ -0,0 +1,61 @@
+package org.fergoeqs.specification;
+
+import org.fergoeqs.dto.FilterConditionDTO;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+@ApplicationScoped
+public class FilterPlanCache {
+
+    private static final int MAX_PLANS = 512;
+
+    private final Map<String, FilterPlan> plans = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    FilterPlan get(List<FilterConditionDTO> filters, Supplier<FilterPlan> compiler) {
+        String shape = shapeOf(filters);
+        FilterPlan plan = plans.get(shape);
+        if (plan != null) {
+            hits.increment();
+            return plan;
+        }
+
+        misses.increment();
+        plan = compiler.get();
+        // past the bound new shapes are compiled per call instead of evicting hot ones
+        if (plans.size() < MAX_PLANS) {
+            plans.putIfAbsent(shape, plan);
+        }
+        return plan;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int getSize() {
+        return plans.size();
+    }
+
+    // field, operator and arity; scalar values are -1 so "in" with one scalar differs from a one-element list
+    private static String shapeOf(List<FilterConditionDTO> filters) {
+        StringBuilder shape = new StringBuilder();
+        for (FilterConditionDTO filter : filters) {
+            int arity = filter.value() instanceof List<?> values ? values.size() : -1;
+            shape.append(filter.field()).append(':')
+                    .append(filter.operator() != null ? filter.operator().toLowerCase() : null).append(':')
+                    .append(arity).append('|');
+        }
+        return shape.toString();
+    }
+}
@@ -0,0 +1,137 @@
+package org.fergoeqs.specification;
+
+import org.fergoeqs.dto.OrganizationResponseDTO;
+import org.fergoeqs.dto.SortOptionDTO;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Opaque continuation token for keyset pagination: the sort key values and id of the last row of a page.
+ * The token also carries a fingerprint of the sort it was produced for, so it cannot be replayed against another order.
+ */
+public final class KeysetCursor {
+
+    private static final byte VERSION = 1;
+    private static final String ID_FIELD = "id";
+
+    private final List<SortOptionDTO> keys;
+    private final List<String> values;
+
+    private KeysetCursor(List<SortOptionDTO> keys, List<String> values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    public List<SortOptionDTO> keys() {
+        return keys;
+    }
+
+    public String value(int index) {
+        return values.get(index);
+    }
+
+    // Requested sort plus "id" as the final tie-breaker, so every row has a unique position.
+    public static List<SortOptionDTO> sortKeys(List<SortOptionDTO> sortOptions) {
+        List<SortOptionDTO> keys = new ArrayList<>();
+        if (sortOptions != null) {
+            for (SortOptionDTO sortOption : sortOptions) {
+                keys.add(sortOption);
+                if (ID_FIELD.equals(sortOption.field())) {
+                    return Collections.unmodifiableList(keys);
+                }
+            }
+        }
+        keys.add(new SortOptionDTO(ID_FIELD, "asc", null));
+        return Collections.unmodifiableList(keys);
+    }
+
+    public static boolean isDescending(SortOptionDTO sortOption) {
+        return sortOption.direction() != null && "desc".equalsIgnoreCase(sortOption.direction());
+    }
+
+    public static String encode(List<SortOptionDTO> sortOptions, OrganizationResponseDTO lastRow) {
+        List<SortOptionDTO> keys = sortKeys(sortOptions);
+        for (SortOptionDTO key : keys) {
+            if (!supports(key.field())) {
+                return null;
+            }
+        }
+
+        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+             DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeInt(fingerprint(keys));
+            out.writeShort(keys.size());
+            for (SortOptionDTO key : keys) {
+                Object value = sortValue(lastRow, key.field());
+                out.writeBoolean(value != null);
+                if (value != null) {
+                    out.writeUTF(value.toString());
+                }
+            }
+            out.flush();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode cursor", e);
+        }
+    }
+
+    public static KeysetCursor decode(String token, List<SortOptionDTO> sortOptions) {
+        List<SortOptionDTO> keys = sortKeys(sortOptions);
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            if (in.readByte() != VERSION || in.readInt() != fingerprint(keys) || in.readShort() != keys.size()) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort");
+            }
+            List<String> values = new ArrayList<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                values.add(in.readBoolean() ? in.readUTF() : null);
+            }
+            if (values.get(values.size() - 1) == null) {
+                throw new IllegalArgumentException("Cursor has no id");
+            }
+            return new KeysetCursor(keys, values);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + e.getMessage(), e);
+        }
+    }
+
+    public static boolean supports(String field) {
+        return switch (field) {
+            case "id", "name", "coordinates.x", "coordinates.y", "annualTurnover",
+                 "fullName", "type", "postalAddress.street", "creationDate" -> true;
+            default -> false;
+        };
+    }
+
+    private static Object sortValue(OrganizationResponseDTO row, String field) {
+        return switch (field) {
+            case "id" -> row.id();
+            case "name" -> row.name();
+            case "coordinates.x" -> row.coordinates() != null ? row.coordinates().x() : null;
+            case "coordinates.y" -> row.coordinates() != null ? row.coordinates().y() : null;
+            case "annualTurnover" -> row.annualTurnover();
+            case "fullName" -> row.fullName();
+            case "type" -> row.type() != null ? row.type().name() : null;
+            case "postalAddress.street" -> row.postalAddress() != null ? row.postalAddress().street() : null;
+            case "creationDate" -> row.creationDate();
+            default -> throw new IllegalArgumentException("Field is not supported for cursor pagination: " + field);
+        };
+    }
+
+    private static int fingerprint(List<SortOptionDTO> keys) {
+        StringBuilder shape = new StringBuilder();
+        for (SortOptionDTO key : keys) {
+            shape.append(key.field()).append(isDescending(key) ? ":desc" : ":asc").append('|');
+        }
+        return shape.toString().hashCode();
+    }
+}
@@ -6,164 +6,160 @@ import org.fergoeqs.model.Organization;
 import org.fergoeqs.model.OrganizationType;
 
 import jakarta.persistence.criteria.*;
+import jakarta.persistence.metamodel.SingularAttribute;
 import jakarta.ejb.Stateless;
+import jakarta.inject.Inject;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Stateless
 public class OrganizationSpecifications {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
+    private static final Map<String, NativeColumn> NATIVE_COLUMNS = Map.of(
+            "id", new NativeColumn("o.id", Long.class),
+            "name", new NativeColumn("o.name", String.class),
+            "coordinates.x", new NativeColumn("c.x_coordinate", Double.class),
+            "coordinates.y", new NativeColumn("c.y_coordinate", Float.class),
+            "annualTurnover", new NativeColumn("o.annual_turnover", Integer.class),
+            "fullName", new NativeColumn("o.full_name", String.class),
+            "type", new NativeColumn("o.type", OrganizationType.class),
+            "postalAddress.street", new NativeColumn("a.street", String.class),
+            "creationDate", new NativeColumn("o.creation_date", LocalDateTime.class)
+    );
+
+    private record NativeColumn(String column, Class<?> type) {}
+
+    @Inject
+    private FilterPlanCache filterPlanCache;
+
     public Predicate buildPredicate(Root<Organization> root, CriteriaBuilder cb,
-                                    List<FilterConditionDTO> filters) {
+                                    List<FilterConditionDTO> filters, QueryBindings bindings) {
         if (filters == null || filters.isEmpty()) {
             return cb.conjunction();
         }
 
-        List<Predicate> predicates = new ArrayList<>();
+        FilterPlan plan = filterPlanCache.get(filters, () -> compile(root, filters));
 
-        for (FilterConditionDTO filter : filters) {
-            Predicate predicate = buildFilterPredicate(root, cb, filter);
-            if (predicate != null) {
-                predicates.add(predicate);
-            }
+        List<Predicate> predicates = new ArrayList<>();
+        for (int i = 0; i < filters.size(); i++) {
+            predicates.add(buildFilterPredicate(root, cb, plan.filters().get(i), filters.get(i), bindings));
         }
 
         return predicates.isEmpty() ? cb.conjunction() : cb.and(predicates.toArray(new Predicate[0]));
     }
 
-    private Predicate buildFilterPredicate(Root<Organization> root, CriteriaBuilder cb,
-                                           FilterConditionDTO filter) {
-        try {
-            Path<?> fieldPath = getFieldPath(root, filter.field());
-            Class<?> fieldType = fieldPath.getJavaType();
-
-            System.out.println("Filter field: " + filter.field() + ", type: " + fieldType + ", value: " + filter.value());
-
-            return switch (filter.operator().toLowerCase()) {
-                case "eq" -> buildEqualsPredicate(cb, fieldPath, filter.value(), fieldType);
-                case "ne" -> buildNotEqualsPredicate(cb, fieldPath, filter.value(), fieldType);
-                case "gt" -> buildComparisonPredicate(cb, fieldPath, filter.value(), fieldType, "gt");
-                case "gte" -> buildComparisonPredicate(cb, fieldPath, filter.value(), fieldType, "gte");
-                case "lt" -> buildComparisonPredicate(cb, fieldPath, filter.value(), fieldType, "lt");
-                case "lte" -> buildComparisonPredicate(cb, fieldPath, filter.value(), fieldType, "lte");
-                case "like" -> buildLikePredicate(cb, fieldPath, filter.value());
-                case "in" -> buildInPredicate(cb, fieldPath, filter.value(), fieldType);
-                case "between" -> buildBetweenPredicate(cb, fieldPath, filter.value(), fieldType);
-                default -> throw new IllegalArgumentException("Unsupported operator: " + filter.operator());
-            };
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new IllegalArgumentException(
-                    String.format("Invalid filter condition: %s %s %s. Error: %s",
-                            filter.field(), filter.operator(), filter.value(), e.getMessage()), e);
-        }
-    }
-
-    private Path<?> getFieldPath(Root<Organization> root, String field) {
-        String[] parts = field.split("\\.");
-        Path<?> path = root;
-
-        for (String part : parts) {
-            if ("postalAddress".equals(part)) {
-                path = path.get("postalAddress");
-            } else if ("coordinates".equals(part)) {
-                path = path.get("coordinates");
-            } else {
-                path = path.get(part);
+    private FilterPlan compile(Root<Organization> root, List<FilterConditionDTO> filters) {
+        List<FilterPlan.CompiledFilter> compiled = new ArrayList<>();
+        for (FilterConditionDTO filter : filters) {
+            try {
+                Class<?> fieldType = getFieldPath(root, filter.field()).getJavaType();
+                String operator = filter.operator().toLowerCase();
+                validateOperator(operator, fieldType, filter.value());
+                compiled.add(new FilterPlan.CompiledFilter(filter.field().split("\\."), fieldType, operator));
+            } catch (Exception e) {
+                throw invalidFilter(filter, e);
             }
         }
-
-        return path;
+        return new FilterPlan(List.copyOf(compiled));
     }
 
-    private Predicate buildEqualsPredicate(CriteriaBuilder cb, Path<?> fieldPath, Object value, Class<?> fieldType) {
-        if (fieldType == OrganizationType.class) {
-            OrganizationType enumValue = OrganizationType.valueOf(value.toString());
-            return cb.equal(fieldPath, enumValue);
-        } else if (fieldType == String.class) {
-            return cb.equal(fieldPath, value.toString());
-        } else if (fieldType == Integer.class || fieldType == int.class) {
-            return cb.equal(fieldPath, Integer.valueOf(value.toString()));
-        } else {
-            return cb.equal(fieldPath, convertValue(value, fieldType));
-        }
-    }
-
-    private Predicate buildNotEqualsPredicate(CriteriaBuilder cb, Path<?> fieldPath, Object value, Class<?> fieldType) {
-        if (fieldType == OrganizationType.class) {
-            OrganizationType enumValue = OrganizationType.valueOf(value.toString());
-            return cb.notEqual(fieldPath, enumValue);
-        } else {
-            return cb.notEqual(fieldPath, convertValue(value, fieldType));
+    private void validateOperator(String operator, Class<?> fieldType, Object value) {
+        switch (operator) {
+            case "eq", "ne" -> { }
+            case "gt", "gte", "lt", "lte" -> {
+                if (!Comparable.class.isAssignableFrom(fieldType)) {
+                    throw new IllegalArgumentException("Field is not comparable for " + operator + " operation");
+                }
+            }
+            case "like" -> {
+                if (fieldType != String.class) {
+                    throw new IllegalArgumentException("Field is not a string for like operation");
+                }
+            }
+            case "in" -> {
+                if (!(value instanceof List<?>)) {
+                    throw new IllegalArgumentException("IN operator requires a list of values");
+                }
+            }
+            case "between" -> {
+                if (!(value instanceof List<?> range)) {
+                    throw new IllegalArgumentException("BETWEEN operator requires a list of two values");
+                }
+                if (range.size() != 2) {
+                    throw new IllegalArgumentException("BETWEEN operator requires exactly two values");
+                }
+                if (!Comparable.class.isAssignableFrom(fieldType)) {
+                    throw new IllegalArgumentException("Field is not comparable for between operation");
+                }
+            }
+            default -> throw new IllegalArgumentException("Unsupported operator: " + operator);
         }
     }
 
     @SuppressWarnings("unchecked")
-    private Predicate buildComparisonPredicate(CriteriaBuilder cb, Path<?> fieldPath,
-                                               Object value, Class<?> fieldType, String operator) {
-        if (!Comparable.class.isAssignableFrom(fieldType)) {
-            throw new IllegalArgumentException("Field is not comparable for " + operator + " operation");
+    private Predicate buildFilterPredicate(Root<Organization> root, CriteriaBuilder cb,
+                                           FilterPlan.CompiledFilter compiled, FilterConditionDTO filter,
+                                           QueryBindings bindings) {
+        try {
+            Path<?> fieldPath = getFieldPath(root, compiled.path());
+            Class<?> fieldType = compiled.javaType();
+            Expression<Comparable> comparablePath = (Expression<Comparable>) fieldPath;
+
+            return switch (compiled.operator()) {
+                case "eq" -> cb.equal(fieldPath, bindings.bind(cb, fieldType, convertValue(filter.value(), fieldType)));
+                case "ne" -> cb.notEqual(fieldPath, bindings.bind(cb, fieldType, convertValue(filter.value(), fieldType)));
+                case "gt" -> cb.greaterThan(comparablePath, bindComparable(cb, bindings, fieldType, filter.value()));
+                case "gte" -> cb.greaterThanOrEqualTo(comparablePath, bindComparable(cb, bindings, fieldType, filter.value()));
+                case "lt" -> cb.lessThan(comparablePath, bindComparable(cb, bindings, fieldType, filter.value()));
+                case "lte" -> cb.lessThanOrEqualTo(comparablePath, bindComparable(cb, bindings, fieldType, filter.value()));
+                case "like" -> cb.like((Path<String>) fieldPath,
+                        bindings.<String>bind(cb, String.class, "%" + filter.value() + "%"));
+                case "in" -> {
+                    CriteriaBuilder.In<Object> inClause = cb.in(fieldPath);
+                    for (Object value : (List<?>) filter.value()) {
+                        inClause.value(bindings.<Object>bind(cb, fieldType, convertValue(value, fieldType)));
+                    }
+                    yield inClause;
+                }
+                case "between" -> {
+                    List<?> range = (List<?>) filter.value();
+                    yield cb.between(comparablePath,
+                            bindComparable(cb, bindings, fieldType, range.get(0)),
+                            bindComparable(cb, bindings, fieldType, range.get(1)));
+                }
+                default -> throw new IllegalArgumentException("Unsupported operator: " + filter.operator());
+            };
+        } catch (Exception e) {
+            throw invalidFilter(filter, e);
         }
-
-        Comparable<?> convertedValue = (Comparable<?>) convertValue(value, fieldType);
-
-        return switch (operator) {
-            case "gt" -> cb.greaterThan((Path<Comparable>) fieldPath, (Comparable) convertedValue);
-            case "gte" -> cb.greaterThanOrEqualTo((Path<Comparable>) fieldPath, (Comparable) convertedValue);
-            case "lt" -> cb.lessThan((Path<Comparable>) fieldPath, (Comparable) convertedValue);
-            case "lte" -> cb.lessThanOrEqualTo((Path<Comparable>) fieldPath, (Comparable) convertedValue);
-            default -> throw new IllegalArgumentException("Unsupported comparison operator: " + operator);
-        };
     }
 
-    private Predicate buildLikePredicate(CriteriaBuilder cb, Path<?> fieldPath, Object value) {
-        if (fieldPath.getJavaType() != String.class) {
-            throw new IllegalArgumentException("Field is not a string for like operation");
-        }
-
-        String stringValue = value.toString();
-        return cb.like((Path<String>) fieldPath, "%" + stringValue + "%");
+    private Expression<Comparable> bindComparable(CriteriaBuilder cb, QueryBindings bindings,
+                                                  Class<?> fieldType, Object value) {
+        return bindings.bind(cb, fieldType, convertValue(value, fieldType));
     }
 
-    @SuppressWarnings("unchecked")
-    private Predicate buildInPredicate(CriteriaBuilder cb, Path<?> fieldPath, Object value, Class<?> fieldType) {
-        if (!(value instanceof List<?>)) {
-            throw new IllegalArgumentException("IN operator requires a list of values");
-        }
-
-        List<?> values = (List<?>) value;
-        CriteriaBuilder.In<Object> inClause = cb.in(fieldPath);
-
-        for (Object val : values) {
-            inClause.value(convertValue(val, fieldType));
-        }
-
-        return inClause;
+    private IllegalArgumentException invalidFilter(FilterConditionDTO filter, Exception e) {
+        return new IllegalArgumentException(
+                String.format("Invalid filter condition: %s %s %s. Error: %s",
+                        filter.field(), filter.operator(), filter.value(), e.getMessage()), e);
     }
 
-    @SuppressWarnings("unchecked")
-    private Predicate buildBetweenPredicate(CriteriaBuilder cb, Path<?> fieldPath, Object value, Class<?> fieldType) {
-        if (!(value instanceof List<?>)) {
-            throw new IllegalArgumentException("BETWEEN operator requires a list of two values");
-        }
-
-        List<?> range = (List<?>) value;
-        if (range.size() != 2) {
-            throw new IllegalArgumentException("BETWEEN operator requires exactly two values");
-        }
+    private Path<?> getFieldPath(Root<Organization> root, String field) {
+        return getFieldPath(root, field.split("\\."));
+    }
 
-        if (!Comparable.class.isAssignableFrom(fieldType)) {
-            throw new IllegalArgumentException("Field is not comparable for between operation");
+    private Path<?> getFieldPath(Root<Organization> root, String[] parts) {
+        Path<?> path = root;
+        for (String part : parts) {
+            path = path.get(part);
         }
-
-        Comparable<?> lower = (Comparable<?>) convertValue(range.get(0), fieldType);
-        Comparable<?> upper = (Comparable<?>) convertValue(range.get(1), fieldType);
-
-        return cb.between((Path<Comparable>) fieldPath, (Comparable) lower, (Comparable) upper);
+        return path;
     }
 
     private Object convertValue(Object value, Class<?> targetType) {
@@ -203,6 +199,107 @@ public class OrganizationSpecifications {
         }
     }
 
+    public Predicate buildKeysetPredicate(Root<Organization> root, CriteriaBuilder cb, KeysetCursor cursor,
+                                          QueryBindings bindings) {
+        List<Predicate> alternatives = new ArrayList<>();
+        List<Predicate> ties = new ArrayList<>();
+
+        for (int i = 0; i < cursor.keys().size(); i++) {
+            org.fergoeqs.dto.SortOptionDTO key = cursor.keys().get(i);
+            Path<?> fieldPath = getFieldPath(root, key.field());
+            Object value = convertValue(cursor.value(i), fieldPath.getJavaType());
+
+            Predicate after = buildAfterPredicate(cb, fieldPath, value, KeysetCursor.isDescending(key), bindings);
+            if (after != null) {
+                List<Predicate> parts = new ArrayList<>(ties);
+                parts.add(after);
+                alternatives.add(cb.and(parts.toArray(new Predicate[0])));
+            }
+            ties.add(value == null
+                    ? cb.isNull(fieldPath)
+                    : cb.equal(fieldPath, bindings.bind(cb, fieldPath.getJavaType(), value)));
+        }
+
+        return alternatives.isEmpty() ? cb.disjunction() : cb.or(alternatives.toArray(new Predicate[0]));
+    }
+
+    // PostgreSQL puts NULLs last for ASC and first for DESC, the keyset boundary has to follow the same order
+    @SuppressWarnings("unchecked")
+    private Predicate buildAfterPredicate(CriteriaBuilder cb, Path<?> fieldPath, Object value, boolean descending,
+                                          QueryBindings bindings) {
+        boolean nullable = !(fieldPath.getModel() instanceof SingularAttribute<?, ?> attribute) || attribute.isOptional();
+
+        if (value == null) {
+            return descending && nullable ? cb.isNotNull(fieldPath) : null;
+        }
+
+        Path<Comparable> comparablePath = (Path<Comparable>) fieldPath;
+        Expression<Comparable> boundary = bindings.bind(cb, fieldPath.getJavaType(), value);
+        if (descending) {
+            return cb.lessThan(comparablePath, boundary);
+        }
+        Predicate greater = cb.greaterThan(comparablePath, boundary);
+        return nullable ? cb.or(greater, cb.isNull(fieldPath)) : greater;
+    }
+
+    // SQL twin of buildPredicate over "organizations o", "coordinates c", "addresses a", used for planner estimates.
+    // Returns null when a filter has no column mapping, callers then have to fall back to an exact count.
+    public String buildNativeWhere(List<FilterConditionDTO> filters, List<Object> parameters) {
+        if (filters == null || filters.isEmpty()) {
+            return "1 = 1";
+        }
+
+        List<String> clauses = new ArrayList<>();
+        for (FilterConditionDTO filter : filters) {
+            NativeColumn column = NATIVE_COLUMNS.get(filter.field());
+            if (column == null) {
+                return null;
+            }
+            clauses.add(buildNativeClause(column, filter, parameters));
+        }
+        return String.join(" AND ", clauses);
+    }
+
+    private String buildNativeClause(NativeColumn column, FilterConditionDTO filter, List<Object> parameters) {
+        String operator = filter.operator().toLowerCase();
+        return switch (operator) {
+            case "eq" -> column.column() + " = " + nativeParameter(column, filter.value(), parameters);
+            case "ne" -> column.column() + " <> " + nativeParameter(column, filter.value(), parameters);
+            case "gt" -> column.column() + " > " + nativeParameter(column, filter.value(), parameters);
+            case "gte" -> column.column() + " >= " + nativeParameter(column, filter.value(), parameters);
+            case "lt" -> column.column() + " < " + nativeParameter(column, filter.value(), parameters);
+            case "lte" -> column.column() + " <= " + nativeParameter(column, filter.value(), parameters);
+            case "like" -> {
+                parameters.add("%" + filter.value() + "%");
+                yield column.column() + " LIKE ?" + parameters.size();
+            }
+            case "in" -> {
+                if (!(filter.value() instanceof List<?> values) || values.isEmpty()) {
+                    throw new IllegalArgumentException("IN operator requires a list of values");
+                }
+                List<String> placeholders = new ArrayList<>();
+                for (Object value : values) {
+                    placeholders.add(nativeParameter(column, value, parameters));
+                }
+                yield column.column() + " IN (" + String.join(", ", placeholders) + ")";
+            }
+            case "between" -> {
+                if (!(filter.value() instanceof List<?> range) || range.size() != 2) {
+                    throw new IllegalArgumentException("BETWEEN operator requires exactly two values");
+                }
+                yield column.column() + " BETWEEN " + nativeParameter(column, range.get(0), parameters)
+                        + " AND " + nativeParameter(column, range.get(1), parameters);
+            }
+            default -> throw new IllegalArgumentException("Unsupported operator: " + filter.operator());
+        };
+    }
+
+    private String nativeParameter(NativeColumn column, Object value, List<Object> parameters) {
+        Object converted = convertValue(value, column.type());
+        parameters.add(converted instanceof OrganizationType type ? type.name() : converted);
+        return "?" + parameters.size();
+    }
+
     public List<Order> buildOrders(CriteriaBuilder cb, Root<Organization> root,
                                    List<org.fergoeqs.dto.SortOptionDTO> sortOptions) {
         List<Order> orders = new ArrayList<>();
@@ -0,0 +1,36 @@
+package org.fergoeqs.specification;
+
+import jakarta.persistence.Parameter;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.ParameterExpression;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Values collected while a criteria tree is built. The tree only references parameters,
+ * so the rendered SQL is the same for every request with the same filter shape.
+ */
+public final class QueryBindings {
+
+    private final List<ParameterExpression<?>> parameters = new ArrayList<>();
+    private final List<Object> values = new ArrayList<>();
+
+    @SuppressWarnings("unchecked")
+    public <T> ParameterExpression<T> bind(CriteriaBuilder cb, Class<?> type, Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Filter value cannot be null");
+        }
+        ParameterExpression<T> parameter = cb.parameter((Class<T>) type);
+        parameters.add(parameter);
+        values.add(value);
+        return parameter;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void applyTo(Query query) {
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter((Parameter<Object>) parameters.get(i), values.get(i));
+        }
+    }
+}
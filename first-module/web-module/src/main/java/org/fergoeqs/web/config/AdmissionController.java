@@ -0,0 +1,77 @@
+package org.fergoeqs.web.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Load shedding in front of the EJB tier. Reads, searches and writes each get their own adaptive
+ * concurrency limit, so a burst of heavy searches cannot starve id lookups or writes. Over the limit a
+ * request waits in a short bounded queue; past that it fails fast with {@link OverloadedException},
+ * which the resource answers with 503 and Retry-After instead of letting threads pile up on remote calls.
+ * Limits start at ADMISSION_{READ,SEARCH,WRITE}_LIMIT and move between ADMISSION_MIN_LIMIT and
+ * ADMISSION_{READ,SEARCH,WRITE}_MAX_LIMIT.
+ */
+@ApplicationScoped
+public class AdmissionController {
+
+    private final int retryAfterSeconds = Integer.parseInt(getEnv("ADMISSION_RETRY_AFTER_SECONDS", "1"));
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    private final Map<OperationClass, ConcurrencyLimiter> limiters = new EnumMap<>(OperationClass.class);
+
+    @PostConstruct
+    public void init() {
+        int minLimit = Integer.parseInt(getEnv("ADMISSION_MIN_LIMIT", "4"));
+        int queueCapacity = Integer.parseInt(getEnv("ADMISSION_QUEUE_SIZE", "32"));
+        long queueTimeoutMillis = Long.parseLong(getEnv("ADMISSION_QUEUE_TIMEOUT_MS", "100"));
+        limiters.put(OperationClass.READ, limiter(OperationClass.READ, "64", "256", minLimit, queueCapacity, queueTimeoutMillis));
+        limiters.put(OperationClass.SEARCH, limiter(OperationClass.SEARCH, "16", "64", minLimit, queueCapacity, queueTimeoutMillis));
+        limiters.put(OperationClass.WRITE, limiter(OperationClass.WRITE, "16", "64", minLimit, queueCapacity, queueTimeoutMillis));
+    }
+
+    public CompletableFuture<ConcurrencyLimiter.Permit> acquire(OperationClass operationClass) {
+        return limiters.get(operationClass).acquire();
+    }
+
+    // for synchronous endpoints that cannot park the request; null when over the limit
+    public ConcurrencyLimiter.Permit tryAcquire(OperationClass operationClass) {
+        return limiters.get(operationClass).tryAcquire();
+    }
+
+    public int retryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public Map<String, Long> statistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        for (ConcurrencyLimiter limiter : limiters.values()) {
+            statistics.putAll(limiter.statistics());
+        }
+        return statistics;
+    }
+
+    private ConcurrencyLimiter limiter(OperationClass operationClass, String initial, String max,
+                                       int minLimit, int queueCapacity, long queueTimeoutMillis) {
+        String name = "ADMISSION_" + operationClass.name() + "_";
+        return new ConcurrencyLimiter(operationClass,
+                Integer.parseInt(getEnv(name + "LIMIT", initial)),
+                minLimit,
+                Integer.parseInt(getEnv(name + "MAX_LIMIT", max)),
+                queueCapacity,
+                queueTimeoutMillis,
+                scheduler);
+    }
+
+    private static String getEnv(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return (value != null && !value.isEmpty()) ? value : defaultValue;
+    }
+}
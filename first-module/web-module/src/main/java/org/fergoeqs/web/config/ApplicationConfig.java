@@ -1,6 +1,11 @@
 package org.fergoeqs.web.config;
 
+import org.fergoeqs.web.provider.BinaryJsonProvider;
+import org.fergoeqs.web.provider.CompressionInterceptor;
+import org.fergoeqs.web.provider.MetricsFilter;
 import org.fergoeqs.web.provider.ObjectMapperProvider;
+import org.fergoeqs.web.provider.PrettyPrintFilter;
+import org.fergoeqs.web.rest.MetricsResource;
 
 import jakarta.ws.rs.ApplicationPath;
 import jakarta.ws.rs.core.Application;
@@ -14,7 +19,12 @@ public class ApplicationConfig extends Application {
     public Set<Class<?>> getClasses() {
         Set<Class<?>> classes = new HashSet<>();
         classes.add(org.fergoeqs.web.rest.OrganizationResource.class);
+        classes.add(MetricsResource.class);
         classes.add(ObjectMapperProvider.class);
+        classes.add(BinaryJsonProvider.class);
+        classes.add(PrettyPrintFilter.class);
+        classes.add(CompressionInterceptor.class);
+        classes.add(MetricsFilter.class);
         return classes;
     }
 }
\ No newline at end of file
@@ -0,0 +1,203 @@
+package org.fergoeqs.web.config;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit for one operation class that adapts to latency, in the style of the gradient
+ * limiters: the limit follows limit * (long-term RTT / short-term RTT) plus a small headroom, so it
+ * shrinks as soon as calls slow down relative to their usual latency and grows back while they stay fast.
+ * Timed-out or failed-to-send calls cut the limit by a tenth. Requests beyond the limit wait in a bounded
+ * FIFO queue for a short while; when the queue is full or the wait runs out they are refused.
+ */
+public final class ConcurrencyLimiter {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF = 0.9;
+    private static final int LONG_WINDOW = 600;
+    private static final int SHORT_WINDOW = 10;
+
+    private final OperationClass operationClass;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueCapacity;
+    private final long queueTimeoutMillis;
+    private final ScheduledExecutorService scheduler;
+
+    // guarded by this
+    private double limit;
+    private int inFlight;
+    private double longRttNanos;
+    private double shortRttNanos;
+    private final Deque<CompletableFuture<Permit>> waiting = new ArrayDeque<>();
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    ConcurrencyLimiter(OperationClass operationClass, int initialLimit, int minLimit, int maxLimit,
+                       int queueCapacity, long queueTimeoutMillis, ScheduledExecutorService scheduler) {
+        this.operationClass = operationClass;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.queueCapacity = queueCapacity;
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        this.scheduler = scheduler;
+    }
+
+    /** Returned by an admission; release it exactly once when the call is over. */
+    public final class Permit {
+
+        private final long startedNanos = System.nanoTime();
+        private boolean released;
+
+        /** The call finished, successfully or with an application error: its latency is a sample. */
+        public void release() {
+            finish(Outcome.SAMPLE);
+        }
+
+        /** The call timed out or never reached the server: a congestion signal, not a sample. */
+        public void drop() {
+            finish(Outcome.DROPPED);
+        }
+
+        /** Long-running work such as a streamed export, whose duration says nothing about congestion. */
+        public void releaseWithoutSample() {
+            finish(Outcome.IGNORED);
+        }
+
+        private void finish(Outcome outcome) {
+            synchronized (ConcurrencyLimiter.this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            onRelease(System.nanoTime() - startedNanos, outcome);
+        }
+    }
+
+    private enum Outcome {
+        SAMPLE,
+        DROPPED,
+        IGNORED
+    }
+
+    CompletableFuture<Permit> acquire() {
+        CompletableFuture<Permit> admission = new CompletableFuture<>();
+        synchronized (this) {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                admitted.increment();
+                return CompletableFuture.completedFuture(new Permit());
+            }
+            waiting.removeIf(CompletableFuture::isDone);
+            if (waiting.size() >= queueCapacity) {
+                rejected.increment();
+                return CompletableFuture.failedFuture(new OverloadedException(operationClass));
+            }
+            waiting.addLast(admission);
+            queued.increment();
+        }
+        scheduler.schedule(() -> {
+            if (admission.completeExceptionally(new OverloadedException(operationClass))) {
+                rejected.increment();
+            }
+        }, queueTimeoutMillis, TimeUnit.MILLISECONDS);
+        return admission;
+    }
+
+    // non-queuing variant for synchronous callers; null when over the limit
+    Permit tryAcquire() {
+        synchronized (this) {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                admitted.increment();
+                return new Permit();
+            }
+        }
+        rejected.increment();
+        return null;
+    }
+
+    private void onRelease(long rttNanos, Outcome outcome) {
+        synchronized (this) {
+            inFlight--;
+            if (outcome == Outcome.SAMPLE) {
+                adapt(rttNanos);
+            } else if (outcome == Outcome.DROPPED) {
+                limit = Math.max(minLimit, limit * BACKOFF);
+            }
+        }
+        admitWaiting();
+    }
+
+    // waiters are completed outside the lock because their continuation may run on this thread
+    private void admitWaiting() {
+        while (true) {
+            CompletableFuture<Permit> next;
+            synchronized (this) {
+                if (inFlight >= (int) limit) {
+                    return;
+                }
+                do {
+                    next = waiting.pollFirst();
+                } while (next != null && next.isDone());
+                if (next == null) {
+                    return;
+                }
+                inFlight++;
+            }
+            if (next.complete(new Permit())) {
+                admitted.increment();
+            } else {
+                // lost the race with the queue timeout
+                synchronized (this) {
+                    inFlight--;
+                }
+            }
+        }
+    }
+
+    // caller holds the lock
+    private void adapt(long rttNanos) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+            shortRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) / SHORT_WINDOW;
+        longRttNanos += (rttNanos - longRttNanos) / LONG_WINDOW;
+        // after a lasting slowdown, let the baseline catch up instead of staying pinned at the old latency
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+        // only grow while the limit is actually being used
+        if (inFlight < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, longRttNanos / shortRttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+    }
+
+    synchronized Map<String, Long> statistics() {
+        String prefix = "admission." + operationClass.name().toLowerCase() + ".";
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put(prefix + "limit", (long) limit);
+        statistics.put(prefix + "inFlight", (long) inFlight);
+        statistics.put(prefix + "waiting", waiting.stream().filter(w -> !w.isDone()).count());
+        statistics.put(prefix + "admitted", admitted.sum());
+        statistics.put(prefix + "queued", queued.sum());
+        statistics.put(prefix + "rejected", rejected.sum());
+        statistics.put(prefix + "rttMicros", (long) (shortRttNanos / 1000));
+        return statistics;
+    }
+}
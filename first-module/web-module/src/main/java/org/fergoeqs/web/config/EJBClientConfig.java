@@ -1,47 +1,83 @@
 package org.fergoeqs.web.config;
 
+import com.ecwid.consul.v1.ConsulClient;
+import com.ecwid.consul.v1.QueryParams;
+import com.ecwid.consul.v1.health.HealthServicesRequest;
+import com.ecwid.consul.v1.health.model.HealthService;
+import org.fergoeqs.metrics.Metrics;
 import org.fergoeqs.service.OrganizationServiceRemote;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.NoSuchEJBException;
+import jakarta.ejb.Schedule;
 import jakarta.ejb.Singleton;
 import jakarta.ejb.Startup;
 
 import javax.naming.Context;
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Logger;
 
+/**
+ * Remote client for a horizontally scaled EJB tier. Servers come from EJB_SERVERS (host:port list),
+ * from the Consul service EJB_CONSUL_SERVICE, or from EJB_SERVER_HOST/EJB_SERVER_PORT as before.
+ * Each server has its own naming context and proxy; callers get one proxy that sends every call to the
+ * available node with the fewest calls in flight. Nodes that fail repeatedly are ejected with a growing
+ * backoff and re-admitted once a ping succeeds. A call that never left the client is retried elsewhere.
+ */
 @Singleton
 @Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
 public class EJBClientConfig {
 
-    private volatile OrganizationServiceRemote organizationServiceRemote;
-
-    private Context context;
+    private static final Logger LOGGER = Logger.getLogger(EJBClientConfig.class.getName());
 
     private static final String JNDI_NAME =
             "ejb:/organization-ejb/OrganizationServiceImpl!org.fergoeqs.service.OrganizationServiceRemote";
 
+    private static final int MAX_ATTEMPTS = 3;
+
+    private volatile List<EjbNode> nodes = List.of();
+
+    private volatile OrganizationServiceRemote organizationServiceRemote;
+
+    private ConsulClient consulClient;
+
     @PostConstruct
     public void init() {
         try {
-            context = new InitialContext(buildJndiProperties());
-            System.out.println("[EJB-CLIENT] Lookup: " + JNDI_NAME);
-
-            Object obj = context.lookup(JNDI_NAME);
-
-            if (!(obj instanceof OrganizationServiceRemote)) {
-                throw new NamingException(
-                        "JNDI lookup did not return OrganizationServiceRemote. Got: " +
-                                (obj == null ? "null" : obj.getClass().getName())
-                );
+            String consulService = getEnv("EJB_CONSUL_SERVICE", "");
+            if (!consulService.isEmpty()) {
+                consulClient = new ConsulClient(getEnv("CONSUL_HOST", "consul"), Integer.parseInt(getEnv("CONSUL_PORT", "8500")));
+            }
+            updateNodes(discoverServers());
+            if (nodes.isEmpty()) {
+                throw new NamingException("No EJB server could be looked up");
             }
 
-            organizationServiceRemote = (OrganizationServiceRemote) obj;
+            organizationServiceRemote = (OrganizationServiceRemote) Proxy.newProxyInstance(
+                    OrganizationServiceRemote.class.getClassLoader(),
+                    new Class<?>[]{OrganizationServiceRemote.class},
+                    (proxy, method, args) -> invoke(method, args)
+            );
 
-            System.out.println("[EJB-CLIENT] Remote EJB proxy initialized: "
-                    + organizationServiceRemote.getClass().getName());
+            LOGGER.info("Balancing over " + nodes.size() + " node(s)");
 
         } catch (Exception e) {
             throw new RuntimeException("Failed to initialize EJB remote client", e);
@@ -50,12 +86,8 @@ public class EJBClientConfig {
 
     @PreDestroy
     public void destroy() {
-        if (context != null) {
-            try {
-                context.close();
-            } catch (NamingException e) {
-                e.printStackTrace();
-            }
+        for (EjbNode node : nodes) {
+            node.close();
         }
     }
 
@@ -67,10 +99,227 @@ public class EJBClientConfig {
         return svc;
     }
 
-    private Properties buildJndiProperties() {
-        String ejbServerHost = getEnv("EJB_SERVER_HOST", "ejb-server");
-        String ejbServerPort = getEnv("EJB_SERVER_PORT", "8080");
-        String providerUrl = "http-remoting://" + ejbServerHost + ":" + ejbServerPort;
+    public Map<String, Long> statistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        for (EjbNode node : nodes) {
+            statistics.putAll(node.statistics());
+        }
+        return statistics;
+    }
+
+    // keeps idle connections warm, probes ejected nodes whose backoff ran out and picks up Consul changes
+    @Schedule(second = "*/5", minute = "*", hour = "*", persistent = false)
+    public void checkNodes() {
+        if (consulClient != null) {
+            try {
+                updateNodes(discoverServers());
+            } catch (Exception e) {
+                LOGGER.warning("Consul lookup failed, keeping current nodes: " + e.getMessage());
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        for (EjbNode node : nodes) {
+            if (node.isAvailable() ? node.inFlight() == 0 : node.isDueForProbe(now)) {
+                long started = System.nanoTime();
+                try {
+                    node.proxy().ping();
+                    boolean readmitted = !node.isAvailable();
+                    node.probeSucceeded(System.nanoTime() - started);
+                    if (readmitted) {
+                        LOGGER.info("Re-admitted " + node.address());
+                    }
+                } catch (Exception e) {
+                    node.probeFailed();
+                }
+            }
+        }
+    }
+
+    private Object invoke(Method method, Object[] args) throws Throwable {
+        long started = System.nanoTime();
+        try {
+            Object result = balance(method, args, started);
+            if (!(result instanceof InFlightFuture<?>)) {
+                recordCall(method, started, null);
+            }
+            return result;
+        } catch (Throwable e) {
+            recordCall(method, started, e);
+            throw e;
+        }
+    }
+
+    private static void recordCall(Method method, long started, Throwable failure) {
+        if (failure != null) {
+            Metrics.EJB_CALL_ERRORS.labels(method.getName()).increment();
+        }
+        Metrics.EJB_CALL_SECONDS.labels(method.getName()).recordSince(started);
+    }
+
+    private Object balance(Method method, Object[] args, long callStarted) throws Throwable {
+        Set<EjbNode> tried = new LinkedHashSet<>();
+        Throwable lastFailure = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            EjbNode node = pickNode(tried);
+            if (node == null) {
+                break;
+            }
+            tried.add(node);
+
+            long started = System.nanoTime();
+            node.started();
+            try {
+                Object result = method.invoke(node.proxy(), args);
+                if (result instanceof Future<?> future) {
+                    // an @Asynchronous call returns once dispatched; the node stays busy until the server answers
+                    return new InFlightFuture<>(future, failure -> {
+                        finished(node, started, failure);
+                        recordCall(method, callStarted, failure);
+                    });
+                }
+                node.succeeded(System.nanoTime() - started);
+                return result;
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (!isNodeFailure(cause)) {
+                    node.succeeded(System.nanoTime() - started);
+                    throw cause;
+                }
+                node.failed();
+                lastFailure = cause;
+                if (!isSendFailure(cause)) {
+                    // the request may have run on the server, so it must not be repeated
+                    throw cause;
+                }
+            }
+        }
+        if (lastFailure != null) {
+            throw lastFailure;
+        }
+        throw new IllegalStateException("No EJB server is available");
+    }
+
+    // least outstanding calls; ties go to a random node so equal nodes share the load
+    private EjbNode pickNode(Set<EjbNode> exclude) {
+        List<EjbNode> candidates = new ArrayList<>();
+        for (EjbNode node : nodes) {
+            if (node.isAvailable() && !exclude.contains(node)) {
+                candidates.add(node);
+            }
+        }
+        if (candidates.isEmpty()) {
+            // every node is ejected: trying one beats failing outright
+            for (EjbNode node : nodes) {
+                if (!exclude.contains(node)) {
+                    candidates.add(node);
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            return null;
+        }
+
+        int offset = ThreadLocalRandom.current().nextInt(candidates.size());
+        EjbNode best = null;
+        for (int i = 0; i < candidates.size(); i++) {
+            EjbNode node = candidates.get((offset + i) % candidates.size());
+            if (best == null || node.inFlight() < best.inFlight()) {
+                best = node;
+            }
+        }
+        return best;
+    }
+
+    private synchronized void updateNodes(List<String> servers) {
+        Map<String, EjbNode> current = new LinkedHashMap<>();
+        for (EjbNode node : nodes) {
+            current.put(node.address(), node);
+        }
+
+        List<EjbNode> updated = new ArrayList<>();
+        for (String server : servers) {
+            EjbNode node = current.remove(server);
+            if (node == null) {
+                node = connect(server);
+            }
+            if (node != null) {
+                updated.add(node);
+            }
+        }
+        if (updated.isEmpty() && !nodes.isEmpty()) {
+            LOGGER.warning("Server list came back empty, keeping current nodes");
+            return;
+        }
+
+        nodes = List.copyOf(updated);
+        for (EjbNode removed : current.values()) {
+            LOGGER.info("Removed " + removed.address());
+            removed.close();
+        }
+    }
+
+    private EjbNode connect(String server) {
+        try {
+            Context context = new InitialContext(buildJndiProperties(server));
+            LOGGER.info("Lookup: " + JNDI_NAME + " on " + server);
+
+            Object obj = context.lookup(JNDI_NAME);
+
+            if (!(obj instanceof OrganizationServiceRemote)) {
+                context.close();
+                throw new NamingException(
+                        "JNDI lookup did not return OrganizationServiceRemote. Got: " +
+                                (obj == null ? "null" : obj.getClass().getName())
+                );
+            }
+
+            OrganizationServiceRemote proxy = (OrganizationServiceRemote) obj;
+            // open the remoting connection now rather than on the first user request
+            try {
+                proxy.ping();
+            } catch (Exception e) {
+                LOGGER.warning("Warm-up ping to " + server + " failed: " + e.getMessage());
+            }
+
+            LOGGER.info("Remote EJB proxy initialized for " + server + ": "
+                    + proxy.getClass().getName());
+            return new EjbNode(server, context, proxy);
+
+        } catch (NamingException e) {
+            LOGGER.warning("Could not connect to " + server + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private List<String> discoverServers() {
+        if (consulClient != null) {
+            List<String> servers = new ArrayList<>();
+            List<HealthService> services = consulClient.getHealthServices(
+                    getEnv("EJB_CONSUL_SERVICE", ""),
+                    HealthServicesRequest.newBuilder().setPassing(true).setQueryParams(QueryParams.DEFAULT).build()
+            ).getValue();
+            for (HealthService service : services) {
+                servers.add(service.getService().getAddress() + ":" + service.getService().getPort());
+            }
+            return servers;
+        }
+
+        String configured = getEnv("EJB_SERVERS", "");
+        if (!configured.isEmpty()) {
+            List<String> servers = new ArrayList<>();
+            for (String server : configured.split(",")) {
+                if (!server.isBlank()) {
+                    servers.add(server.trim());
+                }
+            }
+            return servers;
+        }
+        return List.of(getEnv("EJB_SERVER_HOST", "ejb-server") + ":" + getEnv("EJB_SERVER_PORT", "8080"));
+    }
+
+    private Properties buildJndiProperties(String server) {
+        String providerUrl = "http-remoting://" + server;
 
         String ejbUsername = getEnv("EJB_USERNAME", "admin");
         String ejbPassword = getEnv("EJB_PASSWORD", "admin");
@@ -82,12 +331,42 @@ public class EJBClientConfig {
         props.put(Context.SECURITY_PRINCIPAL, ejbUsername);
         props.put(Context.SECURITY_CREDENTIALS, ejbPassword);
 
-        System.out.println("[EJB-CLIENT] Provider URL: " + providerUrl);
-        System.out.println("[EJB-CLIENT] Username: " + ejbUsername);
+        LOGGER.info("Provider URL: " + providerUrl);
+        LOGGER.info("Username: " + ejbUsername);
 
         return props;
     }
 
+    // the request never reached the server (connection refused, channel closed), so another node may take it
+    // an answered call counts as success for the node even when it is an application error
+    private static void finished(EjbNode node, long started, Throwable failure) {
+        if (failure != null && isNodeFailure(failure)) {
+            node.failed();
+        } else {
+            node.succeeded(System.nanoTime() - started);
+        }
+    }
+
+    private static boolean isSendFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof java.net.ConnectException
+                    || cause.getClass().getSimpleName().equals("RequestSendFailedException")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isNodeFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException || cause instanceof NoSuchEJBException
+                    || cause.getClass().getSimpleName().equals("RequestSendFailedException")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private String getEnv(String name, String defaultValue) {
         String value = System.getenv(name);
         return (value != null && !value.isEmpty()) ? value : defaultValue;
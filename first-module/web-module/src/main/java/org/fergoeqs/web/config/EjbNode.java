@@ -0,0 +1,140 @@
+package org.fergoeqs.web.config;
+
+import org.fergoeqs.service.OrganizationServiceRemote;
+
+import javax.naming.Context;
+import javax.naming.NamingException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// One EJB server: its own naming context and proxy, plus the load and health figures the balancer reads.
+final class EjbNode {
+
+    private static final Logger LOGGER = Logger.getLogger(EjbNode.class.getName());
+
+    private static final int FAILURES_TO_EJECT = 3;
+    private static final long MIN_EJECTION_MILLIS = 5_000;
+    private static final long MAX_EJECTION_MILLIS = 60_000;
+    // weight of the newest sample in the latency moving average
+    private static final double LATENCY_ALPHA = 0.2;
+
+    private final String address;
+    private final Context context;
+    private final OrganizationServiceRemote proxy;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicLong latencyMicros = new AtomicLong();
+
+    private volatile boolean ejected;
+    private volatile long ejectedUntil;
+    private volatile long ejectionMillis = MIN_EJECTION_MILLIS;
+
+    EjbNode(String address, Context context, OrganizationServiceRemote proxy) {
+        this.address = address;
+        this.context = context;
+        this.proxy = proxy;
+    }
+
+    String address() {
+        return address;
+    }
+
+    OrganizationServiceRemote proxy() {
+        return proxy;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    long latencyMicros() {
+        return latencyMicros.get();
+    }
+
+    boolean isAvailable() {
+        return !ejected;
+    }
+
+    boolean isDueForProbe(long now) {
+        return ejected && now >= ejectedUntil;
+    }
+
+    void started() {
+        inFlight.incrementAndGet();
+        calls.increment();
+    }
+
+    // the node answered, even if the answer is an application error
+    void succeeded(long elapsedNanos) {
+        inFlight.decrementAndGet();
+        consecutiveFailures.set(0);
+        recordLatency(elapsedNanos / 1000);
+    }
+
+    void failed() {
+        inFlight.decrementAndGet();
+        failures.increment();
+        if (consecutiveFailures.incrementAndGet() >= FAILURES_TO_EJECT) {
+            eject();
+        }
+    }
+
+    void probeSucceeded(long elapsedNanos) {
+        consecutiveFailures.set(0);
+        ejectionMillis = MIN_EJECTION_MILLIS;
+        ejected = false;
+        recordLatency(elapsedNanos / 1000);
+    }
+
+    // an idle node's failed keep-alive counts like a failed call; an ejected node's backs off further
+    void probeFailed() {
+        failures.increment();
+        if (ejected) {
+            ejectionMillis = Math.min(MAX_EJECTION_MILLIS, ejectionMillis * 2);
+            eject();
+        } else if (consecutiveFailures.incrementAndGet() >= FAILURES_TO_EJECT) {
+            eject();
+        }
+    }
+
+    private void eject() {
+        ejectedUntil = System.currentTimeMillis() + ejectionMillis;
+        if (!ejected) {
+            ejected = true;
+            LOGGER.info("Ejected " + address + " for " + ejectionMillis + " ms");
+        }
+    }
+
+    private void recordLatency(long micros) {
+        latencyMicros.updateAndGet(previous -> previous == 0
+                ? micros
+                : (long) (LATENCY_ALPHA * micros + (1 - LATENCY_ALPHA) * previous));
+    }
+
+    Map<String, Long> statistics() {
+        String prefix = "ejb.node." + address + ".";
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put(prefix + "available", ejected ? 0L : 1L);
+        statistics.put(prefix + "inFlight", (long) inFlight.get());
+        statistics.put(prefix + "calls", calls.sum());
+        statistics.put(prefix + "failures", failures.sum());
+        statistics.put(prefix + "latencyMicros", latencyMicros.get());
+        return statistics;
+    }
+
+    void close() {
+        try {
+            context.close();
+        } catch (NamingException e) {
+            LOGGER.log(Level.WARNING, "Could not close the naming context of " + address, e);
+        }
+    }
+}
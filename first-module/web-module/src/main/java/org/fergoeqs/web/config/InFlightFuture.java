@@ -0,0 +1,103 @@
+package org.fergoeqs.web.config;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+// The Future of an @Asynchronous remote call. Remote Futures have no completion callback, so the call counts as
+// finished the first time a caller sees its outcome: get returning or throwing, a cancel, or isDone turning true.
+// The callback gets null on success and the failure otherwise; it runs once.
+final class InFlightFuture<T> implements Future<T> {
+
+    private final Future<T> delegate;
+    private final Consumer<Throwable> onFinished;
+    private final AtomicBoolean finished = new AtomicBoolean();
+
+    InFlightFuture(Future<T> delegate, Consumer<Throwable> onFinished) {
+        this.delegate = delegate;
+        this.onFinished = onFinished;
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        try {
+            T value = delegate.get();
+            finish(null);
+            return value;
+        } catch (ExecutionException e) {
+            finish(e.getCause() != null ? e.getCause() : e);
+            throw e;
+        } catch (CancellationException e) {
+            finish(e);
+            throw e;
+        }
+    }
+
+    // a timeout or an interrupt leaves the call running on the server, so it stays in flight
+    @Override
+    public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        try {
+            T value = delegate.get(timeout, unit);
+            finish(null);
+            return value;
+        } catch (ExecutionException e) {
+            finish(e.getCause() != null ? e.getCause() : e);
+            throw e;
+        } catch (CancellationException e) {
+            finish(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = delegate.cancel(mayInterruptIfRunning);
+        if (cancelled) {
+            finish(new CancellationException());
+        } else {
+            observe();
+        }
+        return cancelled;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return delegate.isCancelled();
+    }
+
+    @Override
+    public boolean isDone() {
+        boolean done = delegate.isDone();
+        if (done) {
+            observe();
+        }
+        return done;
+    }
+
+    // the delegate is done, so get does not block; it only tells success from failure
+    private void observe() {
+        if (finished.get() || !delegate.isDone()) {
+            return;
+        }
+        try {
+            delegate.get();
+            finish(null);
+        } catch (ExecutionException e) {
+            finish(e.getCause() != null ? e.getCause() : e);
+        } catch (CancellationException e) {
+            finish(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void finish(Throwable failure) {
+        if (finished.compareAndSet(false, true)) {
+            onFinished.accept(failure);
+        }
+    }
+}
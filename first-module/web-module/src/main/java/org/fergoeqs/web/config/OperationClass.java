@@ -0,0 +1,8 @@
+package org.fergoeqs.web.config;
+
+// Budgets of the admission controller: cheap lookups, filtered searches and aggregations, and writes.
+public enum OperationClass {
+    READ,
+    SEARCH,
+    WRITE
+}
@@ -0,0 +1,158 @@
+package org.fergoeqs.web.config;
+
+import org.fergoeqs.dto.OrganizationResponseDTO;
+
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gathers single-id lookups that arrive within a short window into one getOrganizationsByIds remote call.
+ * The first lookup of a batch starts the window; a batch that reaches the size limit is sent immediately.
+ * A future completes with null when the id does not exist. Each batch takes one READ permit from the
+ * {@link AdmissionController}; a refused batch fails all its lookups with {@link OverloadedException}.
+ */
+@ApplicationScoped
+public class OrganizationLookupCoalescer {
+
+    private final long windowMicros = Long.parseLong(getEnv("COALESCE_WINDOW_MICROS", "500"));
+    private final int maxBatch = Integer.parseInt(getEnv("COALESCE_MAX_BATCH", "100"));
+
+    @Inject
+    private EJBClientConfig ejbClientConfig;
+
+    @Inject
+    private AdmissionController admissionController;
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    private final Object lock = new Object();
+    private List<PendingLookup> pending = new ArrayList<>();
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAccumulator maxBatchSize = new LongAccumulator(Math::max, 0);
+    private final LongAdder waitMicros = new LongAdder();
+    private final LongAccumulator maxWaitMicros = new LongAccumulator(Math::max, 0);
+
+    private record PendingLookup(Long id, long enqueuedNanos, CompletableFuture<OrganizationResponseDTO> result) {
+    }
+
+    public CompletableFuture<OrganizationResponseDTO> get(Long id) {
+        PendingLookup lookup = new PendingLookup(id, System.nanoTime(), new CompletableFuture<>());
+        lookups.increment();
+        if (windowMicros <= 0) {
+            executor.submit(() -> send(List.of(lookup)));
+            return lookup.result();
+        }
+
+        List<PendingLookup> full = null;
+        boolean opensWindow;
+        synchronized (lock) {
+            pending.add(lookup);
+            opensWindow = pending.size() == 1;
+            if (pending.size() >= maxBatch) {
+                full = pending;
+                pending = new ArrayList<>();
+            }
+        }
+        if (full != null) {
+            List<PendingLookup> batch = full;
+            executor.submit(() -> send(batch));
+        } else if (opensWindow) {
+            scheduler.schedule(this::sendPending, windowMicros, TimeUnit.MICROSECONDS);
+        }
+        return lookup.result();
+    }
+
+    public Map<String, Long> statistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        long batchCount = batches.sum();
+        statistics.put("coalescer.lookups", lookups.sum());
+        statistics.put("coalescer.batches", batchCount);
+        statistics.put("coalescer.avgBatchSize", batchCount == 0 ? 0 : lookups.sum() / batchCount);
+        statistics.put("coalescer.maxBatchSize", maxBatchSize.get());
+        statistics.put("coalescer.avgWaitMicros", lookups.sum() == 0 ? 0 : waitMicros.sum() / lookups.sum());
+        statistics.put("coalescer.maxWaitMicros", maxWaitMicros.get());
+        return statistics;
+    }
+
+    // a window that fires after its batch was already sent as full just sends the next batch early
+    private void sendPending() {
+        List<PendingLookup> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+        send(batch);
+    }
+
+    private void send(List<PendingLookup> batch) {
+        long sentNanos = System.nanoTime();
+        batches.increment();
+        maxBatchSize.accumulate(batch.size());
+        for (PendingLookup lookup : batch) {
+            long waited = TimeUnit.NANOSECONDS.toMicros(sentNanos - lookup.enqueuedNanos());
+            waitMicros.add(waited);
+            maxWaitMicros.accumulate(waited);
+        }
+
+        // the remote call always runs on the executor: send may be on the window timer, whose small pool must
+        // stay free for the next windows, and a queued admission completes on the thread that freed the slot
+        admissionController.acquire(OperationClass.READ)
+                .whenCompleteAsync((permit, refused) -> fetch(batch, permit, refused), executor);
+    }
+
+    private void fetch(List<PendingLookup> batch, ConcurrencyLimiter.Permit permit, Throwable refused) {
+        if (refused != null) {
+            for (PendingLookup lookup : batch) {
+                lookup.result().completeExceptionally(refused);
+            }
+            return;
+        }
+        LinkedHashSet<Long> ids = new LinkedHashSet<>();
+        for (PendingLookup lookup : batch) {
+            ids.add(lookup.id());
+        }
+        try {
+            Map<Long, OrganizationResponseDTO> byId = new HashMap<>();
+            for (OrganizationResponseDTO organization : ejbClientConfig.getOrganizationServiceRemote()
+                    .getOrganizationsByIds(new ArrayList<>(ids))) {
+                byId.put(organization.id(), organization);
+            }
+            permit.release();
+            for (PendingLookup lookup : batch) {
+                lookup.result().complete(byId.get(lookup.id()));
+            }
+        } catch (Exception e) {
+            permit.release();
+            for (PendingLookup lookup : batch) {
+                lookup.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    private static String getEnv(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return (value != null && !value.isEmpty()) ? value : defaultValue;
+    }
+}
@@ -0,0 +1,16 @@
+package org.fergoeqs.web.config;
+
+// The operation class is at its concurrency limit and its wait queue is full or the wait ran out.
+public class OverloadedException extends RuntimeException {
+
+    private final OperationClass operationClass;
+
+    public OverloadedException(OperationClass operationClass) {
+        super("Too many " + operationClass.name().toLowerCase() + " requests in flight");
+        this.operationClass = operationClass;
+    }
+
+    public OperationClass getOperationClass() {
+        return operationClass;
+    }
+}
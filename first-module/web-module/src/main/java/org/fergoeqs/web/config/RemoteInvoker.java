@@ -0,0 +1,170 @@
+package org.fergoeqs.web.config;
+
+import jakarta.annotation.Resource;
+import jakarta.ejb.EJBException;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs remote EJB calls off the HTTP worker thread and resumes the suspended JAX-RS response when they finish.
+ * Remote {@link Future}s have no completion callback, so the wait happens on the managed executor;
+ * a call that outlives the timeout answers 503 and, for @Asynchronous methods, is cancelled on the EJB server.
+ * Every call first takes a permit of its {@link OperationClass} from the {@link AdmissionController};
+ * a refused one answers 503 with Retry-After without touching the executor.
+ */
+@ApplicationScoped
+public class RemoteInvoker {
+
+    private final long timeoutMillis = Long.parseLong(getEnv("EJB_CALL_TIMEOUT_MS", "30000"));
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    @Inject
+    private AdmissionController admissionController;
+
+    public <T> void call(OperationClass operationClass, AsyncResponse asyncResponse, Callable<T> call,
+                         Function<T, Response> onSuccess, Function<Throwable, Response> onError) {
+        submit(operationClass, asyncResponse, call, onSuccess, onError);
+    }
+
+    public <T> void await(OperationClass operationClass, AsyncResponse asyncResponse, Supplier<Future<T>> call,
+                          Function<T, Response> onSuccess, Function<Throwable, Response> onError) {
+        submit(operationClass, asyncResponse, () -> waitFor(call.get()), onSuccess, onError);
+    }
+
+    // for callers that compose the result before answering, e.g. to cache it
+    public <T> CompletableFuture<T> supply(OperationClass operationClass, Supplier<Future<T>> call) {
+        return admitted(operationClass, () -> waitFor(call.get()));
+    }
+
+    // runs the call on the executor once admitted; the future fails with OverloadedException when refused
+    public <T> CompletableFuture<T> admitted(OperationClass operationClass, Callable<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        admissionController.acquire(operationClass).whenComplete((permit, refused) -> {
+            if (refused != null) {
+                result.completeExceptionally(refused);
+                return;
+            }
+            try {
+                executor.submit(() -> {
+                    try {
+                        T value = call.call();
+                        permit.release();
+                        result.complete(value);
+                    } catch (TimeoutException e) {
+                        permit.drop();
+                        result.completeExceptionally(e);
+                    } catch (Exception e) {
+                        permit.release();
+                        result.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                permit.drop();
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    public <T> void complete(AsyncResponse asyncResponse, CompletionStage<T> call,
+                             Function<T, Response> onSuccess, Function<Throwable, Response> onError) {
+        asyncResponse.setTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        asyncResponse.setTimeoutHandler(response -> response.resume(timedOut()));
+        call.whenComplete((result, failure) -> {
+            if (failure == null) {
+                asyncResponse.resume(onSuccess.apply(result));
+                return;
+            }
+            Throwable cause = unwrap(failure);
+            if (cause instanceof OverloadedException overloaded) {
+                asyncResponse.resume(overloaded(overloaded));
+            } else if (cause instanceof TimeoutException || cause instanceof RejectedExecutionException) {
+                asyncResponse.resume(timedOut());
+            } else {
+                asyncResponse.resume(onError.apply(cause));
+            }
+        });
+    }
+
+    public Response overloaded(OverloadedException e) {
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .type(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.RETRY_AFTER, admissionController.retryAfterSeconds())
+                .entity(Map.of("error", e.getMessage()))
+                .build();
+    }
+
+    private <T> T waitFor(Future<T> future) throws Exception {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw e;
+        }
+    }
+
+    private <T> void submit(OperationClass operationClass, AsyncResponse asyncResponse, Callable<T> call,
+                            Function<T, Response> onSuccess, Function<Throwable, Response> onError) {
+        asyncResponse.setTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        asyncResponse.setTimeoutHandler(response -> response.resume(timedOut()));
+        admitted(operationClass, call).whenComplete((result, failure) -> {
+            Response response;
+            if (failure == null) {
+                response = onSuccess.apply(result);
+            } else if (failure instanceof OverloadedException overloaded) {
+                response = overloaded(overloaded);
+            } else if (failure instanceof TimeoutException) {
+                response = timedOut();
+            } else if (failure instanceof RejectedExecutionException) {
+                response = Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                        .type(MediaType.APPLICATION_JSON)
+                        .entity(Map.of("error", "Too many requests in flight"))
+                        .build();
+            } else {
+                response = onError.apply(unwrap(failure));
+            }
+            asyncResponse.resume(response);
+        });
+    }
+
+    private static Response timedOut() {
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .type(MediaType.APPLICATION_JSON)
+                .entity(Map.of("error", "EJB call timed out"))
+                .build();
+    }
+
+    // exceptions come back wrapped by the Future and the EJB container; callers map the original one
+    private static Throwable unwrap(Throwable e) {
+        Throwable current = e;
+        while ((current instanceof ExecutionException || current instanceof CompletionException
+                || current instanceof EJBException) && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
+    private static String getEnv(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return (value != null && !value.isEmpty()) ? value : defaultValue;
+    }
+}
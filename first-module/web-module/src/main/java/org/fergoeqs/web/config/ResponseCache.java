@@ -0,0 +1,156 @@
+package org.fergoeqs.web.config;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.core.EntityTag;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Per-node LRU of serialized JSON responses with their ETags.
+ * Concurrent misses for one key share a single load, and a load that overlaps an invalidation is
+ * returned to its callers but not stored. Entries also expire after a TTL, which bounds how long
+ * writes that bypass this node's resource (other nodes, direct EJB clients) stay invisible.
+ */
+@ApplicationScoped
+public class ResponseCache {
+
+    private final int maxEntries = Integer.parseInt(getEnv("RESPONSE_CACHE_MAX_ENTRIES", "10000"));
+    private final long ttlMillis = Long.parseLong(getEnv("RESPONSE_CACHE_TTL_MS", "30000"));
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+    private final Map<String, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder sharedLoads = new LongAdder();
+
+    public record Entry(byte[] body, EntityTag etag, long expiresAt) {
+
+        public static Entry of(byte[] body, EntityTag etag, long ttlMillis) {
+            return new Entry(body, etag, System.currentTimeMillis() + ttlMillis);
+        }
+
+        // weak comparison, as RFC 9110 requires for If-None-Match
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*")) {
+                    return true;
+                }
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("\"" + etag.getValue() + "\"")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public long ttlMillis() {
+        return ttlMillis;
+    }
+
+    public Entry peek(String key) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAt() < System.currentTimeMillis()) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry != null) {
+            hits.increment();
+        }
+        return entry;
+    }
+
+    // the loader may complete with null for "does not exist"; nulls are not cached
+    public CompletionStage<Entry> get(String key, Supplier<CompletionStage<Entry>> loader) {
+        Entry cached = peek(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<Entry> created = new CompletableFuture<>();
+        CompletableFuture<Entry> inFlight = loading.putIfAbsent(key, created);
+        if (inFlight != null) {
+            sharedLoads.increment();
+            return inFlight;
+        }
+
+        misses.increment();
+        long startedAt = generation.get();
+        try {
+            loader.get().whenComplete((entry, failure) -> {
+                if (failure == null && entry != null && generation.get() == startedAt) {
+                    synchronized (entries) {
+                        entries.put(key, entry);
+                    }
+                }
+                loading.remove(key, created);
+                if (failure != null) {
+                    created.completeExceptionally(failure);
+                } else {
+                    created.complete(entry);
+                }
+            });
+        } catch (RuntimeException e) {
+            loading.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    public void invalidate(String key) {
+        generation.incrementAndGet();
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public void invalidatePrefix(String prefix) {
+        generation.incrementAndGet();
+        synchronized (entries) {
+            Iterator<String> keys = entries.keySet().iterator();
+            while (keys.hasNext()) {
+                if (keys.next().startsWith(prefix)) {
+                    keys.remove();
+                }
+            }
+        }
+    }
+
+    public Map<String, Long> statistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        synchronized (entries) {
+            statistics.put("responseCache.size", (long) entries.size());
+        }
+        statistics.put("responseCache.hits", hits.sum());
+        statistics.put("responseCache.misses", misses.sum());
+        statistics.put("responseCache.sharedLoads", sharedLoads.sum());
+        return statistics;
+    }
+
+    private static String getEnv(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return (value != null && !value.isEmpty()) ? value : defaultValue;
+    }
+}
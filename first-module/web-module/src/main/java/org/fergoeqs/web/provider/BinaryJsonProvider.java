@@ -0,0 +1,89 @@
+package org.fergoeqs.web.provider;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Reads and writes Smile and CBOR, the binary encodings of the JSON data model, for clients that
+ * ask for them in Accept or send them as Content-Type. The mappers are configured like the JSON one.
+ */
+@Provider
+@Produces({BinaryJsonProvider.SMILE, BinaryJsonProvider.CBOR})
+@Consumes({BinaryJsonProvider.SMILE, BinaryJsonProvider.CBOR})
+public class BinaryJsonProvider implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+
+    public static final String SMILE = "application/x-jackson-smile";
+    public static final String CBOR = "application/cbor";
+    public static final MediaType SMILE_TYPE = MediaType.valueOf(SMILE);
+    public static final MediaType CBOR_TYPE = MediaType.valueOf(CBOR);
+
+    private static final ObjectMapper SMILE_MAPPER = streamFriendly(ObjectMapperProvider.configure(new SmileMapper()));
+    private static final ObjectMapper CBOR_MAPPER = streamFriendly(ObjectMapperProvider.configure(new CBORMapper()));
+
+    // null for anything that is not Smile or CBOR
+    public static ObjectMapper mapperFor(MediaType mediaType) {
+        if (mediaType == null || mediaType.isWildcardType() || mediaType.isWildcardSubtype()) {
+            return null;
+        }
+        if (SMILE_TYPE.isCompatible(mediaType)) {
+            return SMILE_MAPPER;
+        }
+        if (CBOR_TYPE.isCompatible(mediaType)) {
+            return CBOR_MAPPER;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return mapperFor(mediaType) != null && !isRaw(type);
+    }
+
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                           MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+        ObjectMapper mapper = mapperFor(mediaType);
+        return mapper.readValue(entityStream, mapper.constructType(genericType));
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return mapperFor(mediaType) != null && !isRaw(type);
+    }
+
+    @Override
+    public void writeTo(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        mapperFor(mediaType).writeValue(entityStream, value);
+    }
+
+    // the container owns the entity streams
+    private static ObjectMapper streamFriendly(ObjectMapper mapper) {
+        mapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        mapper.getFactory().disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        return mapper;
+    }
+
+    // already encoded bodies go to the built-in providers untouched
+    private static boolean isRaw(Class<?> type) {
+        return type == byte[].class || type == String.class
+                || InputStream.class.isAssignableFrom(type) || StreamingOutput.class.isAssignableFrom(type);
+    }
+}
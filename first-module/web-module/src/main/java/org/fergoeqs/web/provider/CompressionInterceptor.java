@@ -0,0 +1,131 @@
+package org.fergoeqs.web.provider;
+
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzips response bodies of at least RESPONSE_COMPRESSION_MIN_BYTES (default 1024, 0 disables) for clients
+ * that accept it. The body is buffered up to the threshold, so small responses go out as they are and the
+ * Content-Encoding header is only added once the size is known to be worth it. Once compressing,
+ * a flush from a streaming body reaches the client as a gzip sync block.
+ */
+@Provider
+@Priority(Priorities.ENTITY_CODER)
+public class CompressionInterceptor implements WriterInterceptor {
+
+    private static final int MIN_BYTES = Integer.parseInt(getEnv("RESPONSE_COMPRESSION_MIN_BYTES", "1024"));
+
+    @Context
+    private HttpHeaders requestHeaders;
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        MultivaluedMap<String, Object> headers = context.getHeaders();
+        if (MIN_BYTES <= 0 || headers.containsKey(HttpHeaders.CONTENT_ENCODING) || !acceptsGzip()) {
+            context.proceed();
+            return;
+        }
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        ThresholdOutputStream out = new ThresholdOutputStream(context.getOutputStream(), headers);
+        context.setOutputStream(out);
+        try {
+            context.proceed();
+        } finally {
+            out.finish();
+        }
+    }
+
+    private boolean acceptsGzip() {
+        List<String> values = requestHeaders.getRequestHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (values == null) {
+            return false;
+        }
+        for (String value : values) {
+            for (String coding : value.split(",")) {
+                String[] parts = coding.trim().split(";");
+                boolean refused = parts.length > 1 && parts[1].trim().matches("q=0(\\.0*)?");
+                if (parts[0].trim().equalsIgnoreCase("gzip") && !refused) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static final class ThresholdOutputStream extends OutputStream {
+
+        private final OutputStream target;
+        private final MultivaluedMap<String, Object> headers;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream(MIN_BYTES);
+        private OutputStream out;
+
+        ThresholdOutputStream(OutputStream target, MultivaluedMap<String, Object> headers) {
+            this.target = target;
+            this.headers = headers;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (out != null) {
+                out.write(bytes, offset, length);
+                return;
+            }
+            buffer.write(bytes, offset, length);
+            if (buffer.size() >= MIN_BYTES) {
+                // headers are still uncommitted: nothing has reached the target yet
+                headers.putSingle(HttpHeaders.CONTENT_ENCODING, "gzip");
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+                out = new GZIPOutputStream(target, 8192, true);
+                buffer.writeTo(out);
+                buffer = null;
+            }
+        }
+
+        // below the threshold a flush is held back, otherwise every writer's final flush would commit the body
+        @Override
+        public void flush() throws IOException {
+            if (out != null) {
+                out.flush();
+            }
+        }
+
+        void finish() throws IOException {
+            if (out == null) {
+                target.write(buffer.toByteArray());
+                buffer = null;
+                out = target;
+            } else if (out instanceof GZIPOutputStream gzip) {
+                gzip.finish();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+            target.close();
+        }
+    }
+
+    private static String getEnv(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return (value != null && !value.isEmpty()) ? value : defaultValue;
+    }
+}
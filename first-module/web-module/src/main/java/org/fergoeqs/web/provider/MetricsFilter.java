@@ -0,0 +1,94 @@
+package org.fergoeqs.web.provider;
+
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+import org.fergoeqs.metrics.Metrics;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Request latency and errors per resource method, measured from the request filter to the response
+ * filter (for suspended requests that is when the response is resumed), and response body sizes as
+ * written to the wire before compression. Writer interceptors with a higher priority value run inside those
+ * with a lower one, so USER puts the byte count between the entity writer and the ENTITY_CODER gzip stream.
+ */
+@Provider
+@Priority(Priorities.USER)
+public class MetricsFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+    private static final String STARTED = MetricsFilter.class.getName() + ".started";
+    private static final String ENDPOINT = MetricsFilter.class.getName() + ".endpoint";
+    private static final String UNMATCHED = "unmatched";
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        request.setProperty(STARTED, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        Object started = request.getProperty(STARTED);
+        if (!(started instanceof Long)) {
+            return;
+        }
+        String endpoint = resourceInfo.getResourceMethod() != null
+                ? resourceInfo.getResourceMethod().getName()
+                : UNMATCHED;
+        request.setProperty(ENDPOINT, endpoint);
+        Metrics.HTTP_REQUEST_SECONDS.labels(endpoint).recordSince((Long) started);
+        if (response.getStatus() >= 500) {
+            Metrics.HTTP_ERRORS.labels(endpoint).increment();
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        Object endpoint = context.getProperty(ENDPOINT);
+        if (endpoint == null) {
+            context.proceed();
+            return;
+        }
+        CountingOutputStream out = new CountingOutputStream(context.getOutputStream());
+        context.setOutputStream(out);
+        try {
+            context.proceed();
+        } finally {
+            Metrics.HTTP_RESPONSE_BYTES.labels((String) endpoint).record(out.count);
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            count += length;
+        }
+    }
+}
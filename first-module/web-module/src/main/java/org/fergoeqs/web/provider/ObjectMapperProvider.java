@@ -9,17 +9,30 @@ import jakarta.annotation.Priority;
 import jakarta.ws.rs.ext.ContextResolver;
 import jakarta.ws.rs.ext.Provider;
 
+/**
+ * JSON mapper for the REST layer. SERIALIZER_PROFILE=production (the default) writes compact JSON;
+ * pretty-printing is then only applied per request by {@link PrettyPrintFilter}. SERIALIZER_PROFILE=development
+ * indents every response as before.
+ */
 @Provider
 @Priority(1)
 public class ObjectMapperProvider implements ContextResolver<ObjectMapper> {
 
+    public static final boolean PRODUCTION = !"development".equalsIgnoreCase(getEnv("SERIALIZER_PROFILE", "production"));
+
     private final ObjectMapper objectMapper;
 
     public ObjectMapperProvider() {
-        objectMapper = new ObjectMapper();
+        objectMapper = configure(new ObjectMapper());
+        if (!PRODUCTION) {
+            objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+        }
+    }
+
+    // shared with the Smile and CBOR mappers so every representation carries the same fields
+    static <M extends ObjectMapper> M configure(M objectMapper) {
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
 
         objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         objectMapper.configure(DeserializationFeature.FAIL_ON_INVALID_SUBTYPE, false);
@@ -32,10 +45,16 @@ public class ObjectMapperProvider implements ContextResolver<ObjectMapper> {
 
         objectMapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
         objectMapper.configure(DeserializationFeature.FAIL_ON_MISSING_CREATOR_PROPERTIES, false);
+        return objectMapper;
     }
 
     @Override
     public ObjectMapper getContext(Class<?> type) {
         return objectMapper;
     }
-}
\ No newline at end of file
+
+    private static String getEnv(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return (value != null && !value.isEmpty()) ? value : defaultValue;
+    }
+}
@@ -0,0 +1,48 @@
+package org.fergoeqs.web.provider;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+
+/**
+ * Indents JSON responses for requests carrying ?debug=true when the production profile leaves the
+ * mapper compact. Bodies that are already serialized (cached responses) are re-read and re-written.
+ * The indented body is a different representation, so its ETag gets a -debug suffix the way the Smile and
+ * CBOR ones get theirs; a conditional debug request therefore always receives the full body.
+ */
+@Provider
+public class PrettyPrintFilter implements ContainerResponseFilter {
+
+    public static final String DEBUG_PARAM = "debug";
+
+    private final ObjectMapper objectMapper = ObjectMapperProvider.configure(new ObjectMapper());
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) throws IOException {
+        if (!ObjectMapperProvider.PRODUCTION
+                || !response.hasEntity()
+                || !MediaType.APPLICATION_JSON_TYPE.isCompatible(response.getMediaType())
+                || !"true".equalsIgnoreCase(request.getUriInfo().getQueryParameters().getFirst(DEBUG_PARAM))) {
+            return;
+        }
+        Object entity = response.getEntity();
+        if (entity instanceof StreamingOutput || entity instanceof String) {
+            return;
+        }
+        Object tree = entity instanceof byte[] bytes ? objectMapper.readTree(bytes) : entity;
+        response.setEntity(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(tree),
+                response.getEntityAnnotations(), response.getMediaType());
+        EntityTag tag = response.getEntityTag();
+        if (tag != null) {
+            response.getHeaders().putSingle(HttpHeaders.ETAG, new EntityTag(tag.getValue() + "-debug", tag.isWeak()));
+        }
+    }
+}
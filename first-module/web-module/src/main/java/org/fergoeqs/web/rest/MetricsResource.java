@@ -0,0 +1,17 @@
+package org.fergoeqs.web.rest;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import org.fergoeqs.metrics.Metrics;
+
+// Prometheus scrape endpoint for this web node.
+@Path("/metrics")
+public class MetricsResource {
+
+    @GET
+    @Produces(Metrics.CONTENT_TYPE)
+    public String scrape() {
+        return Metrics.scrape();
+    }
+}
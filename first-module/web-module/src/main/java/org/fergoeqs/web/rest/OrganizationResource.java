@@ -1,27 +1,86 @@
 package org.fergoeqs.web.rest;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.fergoeqs.dto.*;
+import org.fergoeqs.exception.ConflictException;
+import org.fergoeqs.exception.ResourceNotFoundException;
+import org.fergoeqs.exception.StaleVersionException;
 import org.fergoeqs.service.OrganizationServiceRemote;
+import org.fergoeqs.specification.KeysetCursor;
+import org.fergoeqs.web.config.AdmissionController;
+import org.fergoeqs.web.config.ConcurrencyLimiter;
 import org.fergoeqs.web.config.EJBClientConfig;
+import org.fergoeqs.web.config.OperationClass;
+import org.fergoeqs.web.config.OrganizationLookupCoalescer;
+import org.fergoeqs.web.config.OverloadedException;
+import org.fergoeqs.web.config.RemoteInvoker;
+import org.fergoeqs.web.config.ResponseCache;
+import org.fergoeqs.web.provider.BinaryJsonProvider;
 
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.ext.Providers;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 @Path("/organizations")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, BinaryJsonProvider.SMILE, BinaryJsonProvider.CBOR})
+@Consumes({MediaType.APPLICATION_JSON, BinaryJsonProvider.SMILE, BinaryJsonProvider.CBOR})
 public class OrganizationResource {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+    private static final int MAX_EXPORT_CHUNK = 10000;
+    private static final int MAX_BULK_ITEMS = 10000;
+    private static final String ORGANIZATION_KEY = "organization:";
+    private static final String SEARCH_KEY = "search:";
+    private static final List<MediaType> REPRESENTATIONS =
+            List.of(MediaType.APPLICATION_JSON_TYPE, BinaryJsonProvider.SMILE_TYPE, BinaryJsonProvider.CBOR_TYPE);
+
     @Inject
     private EJBClientConfig ejbClientConfig;
 
+    @Inject
+    private RemoteInvoker remoteInvoker;
+
+    @Inject
+    private AdmissionController admissionController;
+
+    @Inject
+    private OrganizationLookupCoalescer lookupCoalescer;
+
+    @Inject
+    private ResponseCache responseCache;
+
+    @Context
+    private Providers providers;
+
+    @Context
+    private HttpHeaders httpHeaders;
+
     private OrganizationServiceRemote getOrganizationService() {
         OrganizationServiceRemote service = ejbClientConfig.getOrganizationServiceRemote();
         if (service == null) {
@@ -51,116 +110,553 @@ public class OrganizationResource {
         return Response.ok(Map.of("status", "UP")).build();
     }
 
+    @GET
+    @Path("/stats")
+    public void getStatistics(@Suspended AsyncResponse asyncResponse) {
+        remoteInvoker.call(OperationClass.READ, asyncResponse,
+                () -> {
+                    Map<String, Long> statistics = new LinkedHashMap<>(getOrganizationService().getStatistics());
+                    statistics.putAll(lookupCoalescer.statistics());
+                    statistics.putAll(responseCache.statistics());
+                    statistics.putAll(ejbClientConfig.statistics());
+                    statistics.putAll(admissionController.statistics());
+                    return statistics;
+                },
+                statistics -> Response.ok(statistics).build(),
+                e -> error(Response.Status.INTERNAL_SERVER_ERROR, e));
+    }
+
     @POST
     @Path("/search")
-    public Response searchOrganizations(@Valid FilterRequestDTO filterRequest) {
+    public void searchOrganizations(@Valid FilterRequestDTO filterRequest,
+                                    @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch,
+                                    @Suspended AsyncResponse asyncResponse) {
+        MediaType type = representation();
+        String key = cacheKey(SEARCH_KEY + sha256(toJson(filterRequest)), type);
+        ResponseCache.Entry cached = responseCache.peek(key);
+        if (cached != null) {
+            asyncResponse.resume(cachedResponse(cached, ifNoneMatch, type));
+            return;
+        }
+        remoteInvoker.complete(asyncResponse,
+                responseCache.get(key, () -> remoteInvoker
+                        .supply(OperationClass.SEARCH, () -> getOrganizationService().searchOrganizationsAsync(filterRequest))
+                        .thenApply(response -> {
+                            byte[] body = encode(response, type);
+                            return ResponseCache.Entry.of(body, new EntityTag(sha256(body)), responseCache.ttlMillis());
+                        })),
+                entry -> cachedResponse(entry, ifNoneMatch, type),
+                e -> error(e instanceof IllegalArgumentException
+                        ? Response.Status.BAD_REQUEST : Response.Status.INTERNAL_SERVER_ERROR, e));
+    }
+
+    @GET
+    @Path("/export")
+    @Produces(NDJSON)
+    public Response exportOrganizations(@QueryParam("filter") List<String> filters,
+                                        @QueryParam("sort") List<String> sort,
+                                        @QueryParam("chunkSize") @DefaultValue("1000") int chunkSize,
+                                        @QueryParam("fetchSize") @DefaultValue("500") int fetchSize) {
         try {
-            PaginatedResponseDTO response = getOrganizationService().searchOrganizationsWithSorting(filterRequest);
-            return Response.ok(response).build();
-        } catch (Exception e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity(Map.of("error", e.getMessage()))
-                    .build();
+            return streamExport(parseFilters(filters), parseSort(sort), chunkSize, fetchSize);
+        } catch (IllegalArgumentException e) {
+            return exportRejected(e);
         }
     }
 
     @POST
-    public Response createOrganization(@Valid OrganizationRequestDTO organizationRequest) {
+    @Path("/export")
+    @Produces(NDJSON)
+    public Response exportOrganizations(@Valid FilterRequestDTO filterRequest,
+                                        @QueryParam("chunkSize") @DefaultValue("1000") int chunkSize,
+                                        @QueryParam("fetchSize") @DefaultValue("500") int fetchSize) {
         try {
-            OrganizationResponseDTO created = getOrganizationService().createOrganization(organizationRequest);
-            return Response
-                    .created(URI.create("/organizations/" + created.id()))
-                    .entity(created)
-                    .build();
+            return streamExport(filterRequest.filters(), filterRequest.sort(), chunkSize, fetchSize);
         } catch (IllegalArgumentException e) {
+            return exportRejected(e);
+        }
+    }
+
+    private static Response exportRejected(IllegalArgumentException e) {
+        return Response.status(Response.Status.BAD_REQUEST)
+                .type(MediaType.APPLICATION_JSON)
+                .entity(Map.of("error", String.valueOf(e.getMessage())))
+                .build();
+    }
+
+    // each chunk is one keyset-bounded remote call, written out and released before the next one is fetched
+    private Response streamExport(List<FilterConditionDTO> filters, List<SortOptionDTO> sort,
+                                  int chunkSize, int fetchSize) {
+        OrganizationServiceRemote service = getOrganizationService();
+        int size = Math.max(1, Math.min(chunkSize, MAX_EXPORT_CHUNK));
+        int jdbcFetchSize = Math.max(1, fetchSize);
+        ObjectMapper objectMapper = providers
+                .getContextResolver(ObjectMapper.class, MediaType.APPLICATION_JSON_TYPE)
+                .getContext(OrganizationResponseDTO.class);
+
+        // a key the cursor cannot encode would end the stream after its first chunk with a 200, so refuse it up front
+        if (sort != null) {
+            for (SortOptionDTO option : sort) {
+                if (option == null || option.field() == null || !KeysetCursor.supports(option.field())) {
+                    throw new IllegalArgumentException("Export cannot sort by field: "
+                            + (option == null ? null : option.field()));
+                }
+            }
+        }
+
+        // exports hold their permit for the whole stream and cannot wait in the queue on a request thread
+        ConcurrencyLimiter.Permit permit = admissionController.tryAcquire(OperationClass.SEARCH);
+        if (permit == null) {
+            return remoteInvoker.overloaded(new OverloadedException(OperationClass.SEARCH));
+        }
+
+        StreamingOutput body = output -> {
+            try {
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                ObjectWriter writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+
+                String cursor = null;
+                boolean more;
+                do {
+                    PaginatedResponseDTO chunk = service.exportOrganizations(
+                            new FilterRequestDTO(filters, sort, null, size, cursor, CountMode.NONE), jdbcFetchSize);
+                    for (OrganizationResponseDTO organization : chunk.organizations()) {
+                        writer.writeValue(generator, organization);
+                        generator.writeRaw('\n');
+                    }
+                    generator.flush();
+                    cursor = chunk.nextCursor();
+                    more = Boolean.TRUE.equals(chunk.hasNext());
+                    if (more && cursor == null) {
+                        // stopping here would hand the client a truncated export that looks complete
+                        throw new IllegalStateException("Export chunk has more rows but no cursor to continue from");
+                    }
+                } while (more);
+
+                generator.close();
+            } finally {
+                permit.releaseWithoutSample();
+            }
+        };
+
+        return Response.ok(body, NDJSON).build();
+    }
+
+    // filter=field:operator:value, list values for in/between are comma separated
+    private List<FilterConditionDTO> parseFilters(List<String> filters) {
+        List<FilterConditionDTO> result = new ArrayList<>();
+        for (String filter : filters) {
+            String[] parts = filter.split(":", 3);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Filter must be field:operator:value, got: " + filter);
+            }
+            String operator = parts[1].toLowerCase();
+            Object value = "in".equals(operator) || "between".equals(operator)
+                    ? Arrays.asList(parts[2].split(","))
+                    : parts[2];
+            result.add(new FilterConditionDTO(parts[0], operator, value));
+        }
+        return result;
+    }
+
+    // sort=field[:direction]
+    private List<SortOptionDTO> parseSort(List<String> sort) {
+        List<SortOptionDTO> result = new ArrayList<>();
+        for (String option : sort) {
+            String[] parts = option.split(":", 2);
+            result.add(new SortOptionDTO(parts[0], parts.length > 1 ? parts[1] : "asc", result.size() + 1));
+        }
+        return result;
+    }
+
+    // ids may be repeated or comma-separated: ?ids=1,2&ids=3; unknown ids are left out of the result
+    @GET
+    public void getOrganizationsByIds(@QueryParam("ids") List<String> ids, @Suspended AsyncResponse asyncResponse) {
+        List<Long> parsed = new ArrayList<>();
+        try {
+            for (String value : ids) {
+                for (String id : value.split(",")) {
+                    if (!id.isBlank()) {
+                        parsed.add(Long.parseLong(id.trim()));
+                    }
+                }
+            }
+        } catch (NumberFormatException e) {
+            asyncResponse.resume(error(Response.Status.BAD_REQUEST, e));
+            return;
+        }
+        Response rejected = checkBulkSize(parsed);
+        if (rejected != null) {
+            asyncResponse.resume(rejected);
+            return;
+        }
+        remoteInvoker.call(OperationClass.READ, asyncResponse,
+                () -> getOrganizationService().getOrganizationsByIds(parsed),
+                organizations -> Response.ok(organizations).build(),
+                e -> error(Response.Status.INTERNAL_SERVER_ERROR, e));
+    }
+
+    @POST
+    public void createOrganization(@Valid OrganizationRequestDTO organizationRequest,
+                                   @Suspended AsyncResponse asyncResponse) {
+        remoteInvoker.call(OperationClass.WRITE, asyncResponse,
+                () -> getOrganizationService().createOrganization(organizationRequest),
+                created -> {
+                    invalidateSearches();
+                    return Response
+                            .created(URI.create("/organizations/" + created.id()))
+                            .entity(created)
+                            .tag(organizationTag(created))
+                            .build();
+                },
+                e -> error(writeStatus(e, Response.Status.INTERNAL_SERVER_ERROR), e));
+    }
+
+    @POST
+    @Path("/bulk")
+    public void createOrganizations(List<OrganizationRequestDTO> organizations, @Suspended AsyncResponse asyncResponse) {
+        Response rejected = checkBulkSize(organizations);
+        if (rejected != null) {
+            asyncResponse.resume(rejected);
+            return;
+        }
+        remoteInvoker.await(OperationClass.WRITE, asyncResponse,
+                () -> getOrganizationService().createOrganizationsAsync(organizations),
+                result -> {
+                    invalidateSearches();
+                    return Response.ok(result).build();
+                },
+                e -> {
+                    invalidateSearches();
+                    return error(Response.Status.INTERNAL_SERVER_ERROR, e);
+                });
+    }
+
+    @PUT
+    @Path("/bulk")
+    public void updateOrganizations(List<BulkUpdateItemDTO> organizations, @Suspended AsyncResponse asyncResponse) {
+        Response rejected = checkBulkSize(organizations);
+        if (rejected != null) {
+            asyncResponse.resume(rejected);
+            return;
+        }
+        remoteInvoker.await(OperationClass.WRITE, asyncResponse,
+                () -> getOrganizationService().updateOrganizationsAsync(organizations),
+                result -> {
+                    invalidate(organizations.stream().map(BulkUpdateItemDTO::id).collect(Collectors.toList()));
+                    return Response.ok(result).build();
+                },
+                e -> {
+                    invalidate(organizations.stream().map(BulkUpdateItemDTO::id).collect(Collectors.toList()));
+                    return error(Response.Status.INTERNAL_SERVER_ERROR, e);
+                });
+    }
+
+    @DELETE
+    @Path("/bulk")
+    public void deleteOrganizations(List<Long> ids, @Suspended AsyncResponse asyncResponse) {
+        Response rejected = checkBulkSize(ids);
+        if (rejected != null) {
+            asyncResponse.resume(rejected);
+            return;
+        }
+        remoteInvoker.await(OperationClass.WRITE, asyncResponse,
+                () -> getOrganizationService().deleteOrganizationsAsync(ids),
+                result -> {
+                    invalidate(ids);
+                    return Response.ok(result).build();
+                },
+                e -> {
+                    invalidate(ids);
+                    return error(Response.Status.INTERNAL_SERVER_ERROR, e);
+                });
+    }
+
+    // items are validated one by one on the EJB side, so a bad row is reported instead of rejecting the batch
+    private Response checkBulkSize(List<?> items) {
+        if (items == null || items.isEmpty() || items.size() > MAX_BULK_ITEMS) {
             return Response.status(Response.Status.BAD_REQUEST)
-                    .entity(Map.of("error", e.getMessage()))
+                    .entity(Map.of("error", "Bulk request must contain between 1 and " + MAX_BULK_ITEMS + " items"))
                     .build();
         }
+        return null;
     }
 
     @GET
     @Path("/{id}")
-    public Response getOrganizationById(@PathParam("id") Long id) {
-        try {
-            OrganizationResponseDTO organization = getOrganizationService().getOrganizationById(id);
-            return Response.ok(organization).build();
-        } catch (Exception e) {
-            return Response.status(Response.Status.NOT_FOUND)
-                    .entity(Map.of("error", e.getMessage()))
-                    .build();
+    public void getOrganizationById(@PathParam("id") Long id,
+                                    @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch,
+                                    @Suspended AsyncResponse asyncResponse) {
+        MediaType type = representation();
+        String key = cacheKey(ORGANIZATION_KEY + id, type);
+        ResponseCache.Entry cached = responseCache.peek(key);
+        if (cached != null) {
+            asyncResponse.resume(cachedResponse(cached, ifNoneMatch, type));
+            return;
         }
+        remoteInvoker.complete(asyncResponse,
+                responseCache.get(key, () -> lookupCoalescer.get(id).thenApply(organization -> organization == null
+                        ? null
+                        : ResponseCache.Entry.of(encode(organization, type), organizationTag(organization, type),
+                                responseCache.ttlMillis()))),
+                entry -> entry != null
+                        ? cachedResponse(entry, ifNoneMatch, type)
+                        : Response.status(Response.Status.NOT_FOUND)
+                                .entity(Map.of("error", "Organization not found with id: " + id))
+                                .build(),
+                e -> error(Response.Status.INTERNAL_SERVER_ERROR, e));
     }
 
     @PUT
     @Path("/{id}")
-    public Response updateOrganization(
+    public void updateOrganization(
             @PathParam("id") Long id,
-            @Valid OrganizationRequestDTO organizationRequest) {
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+            @Valid OrganizationRequestDTO organizationRequest,
+            @Suspended AsyncResponse asyncResponse) {
+        Long expectedVersion;
         try {
-            OrganizationResponseDTO updated = getOrganizationService().updateOrganization(id, organizationRequest);
-            return Response.ok(updated).build();
+            expectedVersion = expectedVersion(id, ifMatch);
         } catch (IllegalArgumentException e) {
-            return Response.status(Response.Status.BAD_REQUEST)
-                    .entity(Map.of("error", e.getMessage()))
-                    .build();
-        } catch (Exception e) {
-            return Response.status(Response.Status.NOT_FOUND)
-                    .entity(Map.of("error", e.getMessage()))
-                    .build();
+            asyncResponse.resume(error(Response.Status.PRECONDITION_FAILED, e));
+            return;
         }
+        remoteInvoker.call(OperationClass.WRITE, asyncResponse,
+                () -> getOrganizationService().updateOrganization(id, organizationRequest, expectedVersion),
+                updated -> {
+                    invalidate(List.of(id));
+                    return Response.ok(updated).tag(organizationTag(updated)).build();
+                },
+                e -> {
+                    invalidate(List.of(id));
+                    return error(writeStatus(e, Response.Status.NOT_FOUND), e);
+                });
     }
 
-    @DELETE
+    // only the fields present in the body change; null or missing fields keep their stored value
+    @PATCH
     @Path("/{id}")
-    public Response deleteOrganization(@PathParam("id") Long id) {
+    @Consumes({MERGE_PATCH_JSON, MediaType.APPLICATION_JSON})
+    public void patchOrganization(
+            @PathParam("id") Long id,
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+            @Valid OrganizationPatchDTO patch,
+            @Suspended AsyncResponse asyncResponse) {
+        Long expectedVersion;
         try {
-            getOrganizationService().deleteOrganization(id);
-            return Response.noContent().build();
-        } catch (Exception e) {
-            return Response.status(Response.Status.NOT_FOUND)
-                    .entity(Map.of("error", e.getMessage()))
-                    .build();
+            expectedVersion = expectedVersion(id, ifMatch);
+        } catch (IllegalArgumentException e) {
+            asyncResponse.resume(error(Response.Status.PRECONDITION_FAILED, e));
+            return;
         }
+        remoteInvoker.call(OperationClass.WRITE, asyncResponse,
+                () -> getOrganizationService().patchOrganization(id, patch, expectedVersion),
+                updated -> {
+                    invalidate(List.of(id));
+                    return Response.ok(updated).tag(organizationTag(updated)).build();
+                },
+                e -> {
+                    invalidate(List.of(id));
+                    return error(writeStatus(e, Response.Status.NOT_FOUND), e);
+                });
     }
 
     @DELETE
-    @Path("/by-address")
-    public Response deleteOrganizationByAddress(@Valid AddressRequestDTO addressRequest) {
+    @Path("/{id}")
+    public void deleteOrganization(@PathParam("id") Long id,
+                                   @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+                                   @Suspended AsyncResponse asyncResponse) {
+        Long expectedVersion;
         try {
-            getOrganizationService().deleteOrganizationByAddress(addressRequest.street());
-            return Response.noContent().build();
-        } catch (Exception e) {
-            return Response.status(Response.Status.NOT_FOUND)
-                    .entity(Map.of("error", e.getMessage()))
-                    .build();
+            expectedVersion = expectedVersion(id, ifMatch);
+        } catch (IllegalArgumentException e) {
+            asyncResponse.resume(error(Response.Status.PRECONDITION_FAILED, e));
+            return;
         }
+        remoteInvoker.call(OperationClass.WRITE, asyncResponse,
+                () -> {
+                    getOrganizationService().deleteOrganization(id, expectedVersion);
+                    return null;
+                },
+                ignored -> {
+                    invalidate(List.of(id));
+                    return Response.noContent().build();
+                },
+                e -> {
+                    invalidate(List.of(id));
+                    return error(writeStatus(e, Response.Status.NOT_FOUND), e);
+                });
     }
 
-    @POST
-    @Path("/group-by-fullname")
-    public Response groupOrganizationsByFullName() {
+    // If-Match carries an ETag from GET ("<id>-<version>"); "*" or no header means an unconditional write
+    private static Long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            throw new IllegalArgumentException("If-Match requires a strong ETag");
+        }
+        String prefix = "\"" + id + "-";
+        if (!tag.startsWith(prefix) || !tag.endsWith("\"") || tag.length() <= prefix.length() + 1) {
+            throw new IllegalArgumentException("If-Match does not name a version of organization " + id);
+        }
+        String version = tag.substring(prefix.length(), tag.length() - 1);
+        // Smile and CBOR tags carry the representation after the version
+        int representation = version.indexOf('-');
         try {
-            Map<String, Long> result = getOrganizationService().groupOrganizationsByFullName();
-            return Response.ok(result).build();
-        } catch (Exception e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity(Map.of("error", e.getMessage()))
-                    .build();
+            return Long.parseLong(representation < 0 ? version : version.substring(0, representation));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match does not name a version of organization " + id);
         }
     }
 
+    private static Response.Status writeStatus(Throwable e, Response.Status fallback) {
+        if (e instanceof ConflictException) {
+            return Response.Status.CONFLICT;
+        }
+        if (e instanceof StaleVersionException) {
+            return Response.Status.PRECONDITION_FAILED;
+        }
+        if (e instanceof IllegalArgumentException) {
+            return Response.Status.BAD_REQUEST;
+        }
+        return e instanceof ResourceNotFoundException ? Response.Status.NOT_FOUND : fallback;
+    }
+
+    @DELETE
+    @Path("/by-address")
+    public void deleteOrganizationByAddress(@Valid AddressRequestDTO addressRequest,
+                                            @Suspended AsyncResponse asyncResponse) {
+        remoteInvoker.call(OperationClass.WRITE, asyncResponse,
+                () -> {
+                    getOrganizationService().deleteOrganizationByAddress(addressRequest.street());
+                    return null;
+                },
+                ignored -> {
+                    // the deleted id is not known here
+                    responseCache.invalidatePrefix(ORGANIZATION_KEY);
+                    invalidateSearches();
+                    return Response.noContent().build();
+                },
+                e -> error(Response.Status.NOT_FOUND, e));
+    }
+
+    @POST
+    @Path("/group-by-fullname")
+    public void groupOrganizationsByFullName(@Suspended AsyncResponse asyncResponse) {
+        remoteInvoker.call(OperationClass.SEARCH, asyncResponse,
+                () -> getOrganizationService().groupOrganizationsByFullName(),
+                result -> Response.ok(result).build(),
+                e -> error(Response.Status.INTERNAL_SERVER_ERROR, e));
+    }
+
+    @POST
+    @Path("/aggregate")
+    public void aggregateOrganizations(@Valid AggregationRequestDTO aggregationRequest,
+                                       @Suspended AsyncResponse asyncResponse) {
+        remoteInvoker.await(OperationClass.SEARCH, asyncResponse,
+                () -> getOrganizationService().aggregateOrganizationsAsync(aggregationRequest),
+                result -> Response.ok(result).build(),
+                e -> error(e instanceof IllegalArgumentException
+                        ? Response.Status.BAD_REQUEST : Response.Status.INTERNAL_SERVER_ERROR, e));
+    }
+
     @POST
     @Path("/count-by-address")
-    public Response countOrganizationsByAddressLessThan(@Valid AddressRequestDTO addressRequest) {
+    public void countOrganizationsByAddressLessThan(@Valid AddressRequestDTO addressRequest,
+                                                    @Suspended AsyncResponse asyncResponse) {
+        remoteInvoker.call(OperationClass.READ, asyncResponse,
+                () -> getOrganizationService().countOrganizationsByAddressLessThan(addressRequest.street()),
+                count -> Response.ok(Map.of("count", count)).build(),
+                e -> error(Response.Status.INTERNAL_SERVER_ERROR, e));
+    }
+
+    private Response cachedResponse(ResponseCache.Entry entry, String ifNoneMatch, MediaType type) {
+        if (entry.matches(ifNoneMatch)) {
+            return Response.notModified(entry.etag()).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
+        }
+        return Response.ok(entry.body(), type).tag(entry.etag()).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
+    }
+
+    // picked on the request thread: the injected headers are not reachable from the async callbacks
+    private MediaType representation() {
+        for (MediaType accepted : httpHeaders.getAcceptableMediaTypes()) {
+            for (MediaType candidate : REPRESENTATIONS) {
+                if (!accepted.isWildcardSubtype() && candidate.isCompatible(accepted)) {
+                    return candidate;
+                }
+            }
+            if (accepted.isCompatible(MediaType.APPLICATION_JSON_TYPE)) {
+                return MediaType.APPLICATION_JSON_TYPE;
+            }
+        }
+        return MediaType.APPLICATION_JSON_TYPE;
+    }
+
+    // JSON keeps the plain key, so invalidation only has to add the binary variants
+    private static String cacheKey(String key, MediaType type) {
+        return type == MediaType.APPLICATION_JSON_TYPE ? key : key + "@" + type.getSubtype();
+    }
+
+    // invalidated after the remote write returns, also on failure since the write may have committed anyway
+    private void invalidate(Collection<Long> ids) {
+        for (Long id : ids) {
+            for (MediaType type : REPRESENTATIONS) {
+                responseCache.invalidate(cacheKey(ORGANIZATION_KEY + id, type));
+            }
+        }
+        invalidateSearches();
+    }
+
+    private void invalidateSearches() {
+        responseCache.invalidatePrefix(SEARCH_KEY);
+    }
+
+    private static EntityTag organizationTag(OrganizationResponseDTO organization) {
+        return organizationTag(organization, MediaType.APPLICATION_JSON_TYPE);
+    }
+
+    private static EntityTag organizationTag(OrganizationResponseDTO organization, MediaType type) {
+        String tag = organization.id() + "-" + organization.version();
+        return new EntityTag(type == MediaType.APPLICATION_JSON_TYPE ? tag : tag + "-" + type.getSubtype());
+    }
+
+    private byte[] toJson(Object value) {
         try {
-            Long count = getOrganizationService().countOrganizationsByAddressLessThan(addressRequest.street());
-            return Response.ok(Map.of("count", count)).build();
-        } catch (Exception e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity(Map.of("error", e.getMessage()))
-                    .build();
+            return providers.getContextResolver(ObjectMapper.class, MediaType.APPLICATION_JSON_TYPE)
+                    .getContext(value.getClass())
+                    .writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] encode(Object value, MediaType type) {
+        ObjectMapper binary = BinaryJsonProvider.mapperFor(type);
+        if (binary == null) {
+            return toJson(value);
         }
+        try {
+            return binary.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Response error(Response.Status status, Throwable e) {
+        return Response.status(status)
+                .entity(Map.of("error", String.valueOf(e.getMessage())))
+                .build();
     }
 
 }
\ No newline at end of file
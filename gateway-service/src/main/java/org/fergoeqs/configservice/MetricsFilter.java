@@ -0,0 +1,42 @@
+package org.fergoeqs.configservice;
+
+import org.fergoeqs.metrics.Metrics;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+// Latency, 5xx count and response size (when the backend sends a Content-Length) per gateway route.
+@Component
+public class MetricsFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long started = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String endpoint = route != null ? route.getId() : "unmatched";
+            Metrics.HTTP_REQUEST_SECONDS.labels(endpoint).recordSince(started);
+
+            HttpStatus status = exchange.getResponse().getStatusCode();
+            if (signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError())) {
+                Metrics.HTTP_ERRORS.labels(endpoint).increment();
+            }
+            long length = exchange.getResponse().getHeaders().getContentLength();
+            if (length >= 0) {
+                Metrics.HTTP_RESPONSE_BYTES.labels(endpoint).record(length);
+            }
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,21 @@
+package org.fergoeqs.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** One labelled series of a {@link CounterFamily}. */
+public final class Counter {
+
+    private final LongAdder count = new LongAdder();
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    long value() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,23 @@
+package org.fergoeqs.metrics;
+
+public final class CounterFamily extends MetricFamily<Counter> {
+
+    CounterFamily(String name, String help, String labelName) {
+        super(name, help, labelName);
+    }
+
+    @Override
+    Counter newSeries() {
+        return new Counter();
+    }
+
+    @Override
+    String type() {
+        return "counter";
+    }
+
+    @Override
+    void writeSeries(PrometheusWriter writer, String labelValue, Counter counter) {
+        writer.sample(name(), "", labelName(), labelValue, null, counter.value());
+    }
+}
@@ -0,0 +1,25 @@
+package org.fergoeqs.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/** One labelled series of a {@link GaugeFamily}: a value that is set, or read from a source at scrape time. */
+public final class Gauge {
+
+    private final AtomicLong value = new AtomicLong();
+    private volatile LongSupplier source;
+
+    public void set(long value) {
+        this.value.set(value);
+    }
+
+    // for figures something else already keeps, such as a pool's leased connections
+    public void track(LongSupplier source) {
+        this.source = source;
+    }
+
+    long value() {
+        LongSupplier current = source;
+        return current != null ? current.getAsLong() : value.get();
+    }
+}
@@ -0,0 +1,23 @@
+package org.fergoeqs.metrics;
+
+public final class GaugeFamily extends MetricFamily<Gauge> {
+
+    GaugeFamily(String name, String help, String labelName) {
+        super(name, help, labelName);
+    }
+
+    @Override
+    Gauge newSeries() {
+        return new Gauge();
+    }
+
+    @Override
+    String type() {
+        return "gauge";
+    }
+
+    @Override
+    void writeSeries(PrometheusWriter writer, String labelValue, Gauge gauge) {
+        writer.sample(name(), "", labelName(), labelValue, null, gauge.value());
+    }
+}
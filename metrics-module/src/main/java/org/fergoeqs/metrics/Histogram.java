@@ -0,0 +1,50 @@
+package org.fergoeqs.metrics;
+
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One labelled series of a {@link HistogramFamily}. Recording is wait-free and allocation-free
+ * (HdrHistogram {@link Recorder} plus a {@link LongAdder} for the exact sum); the interval histograms
+ * are folded into a cumulative one only when the registry is scraped.
+ */
+public final class Histogram {
+
+    private final HistogramFamily family;
+    private final Recorder recorder;
+    private final LongAdder sum = new LongAdder();
+
+    // scrape side only, guarded by this
+    private final org.HdrHistogram.Histogram cumulative;
+    private org.HdrHistogram.Histogram interval;
+
+    Histogram(HistogramFamily family) {
+        this.family = family;
+        this.recorder = new Recorder(1, family.highestValue(), 2);
+        this.cumulative = new org.HdrHistogram.Histogram(1, family.highestValue(), 2);
+    }
+
+    /** Records a value in the family's unit: nanoseconds for latencies, bytes for sizes. */
+    public void record(long value) {
+        long scaled = Math.max(1, Math.min(family.highestValue(), value / family.unitDivisor()));
+        recorder.recordValue(scaled);
+        sum.add(scaled);
+    }
+
+    /** Records the time elapsed since a {@link System#nanoTime()} reading. */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    synchronized void snapshot(long[] bucketCounts, long[] totals) {
+        interval = recorder.getIntervalHistogram(interval);
+        cumulative.add(interval);
+        long[] bounds = family.bucketBounds();
+        for (int i = 0; i < bounds.length; i++) {
+            bucketCounts[i] = cumulative.getCountBetweenValues(0, bounds[i]);
+        }
+        totals[0] = cumulative.getTotalCount();
+        totals[1] = sum.sum();
+    }
+}
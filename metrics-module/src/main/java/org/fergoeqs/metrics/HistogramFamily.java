@@ -0,0 +1,64 @@
+package org.fergoeqs.metrics;
+
+/**
+ * Prometheus histogram backed by HdrHistogram. Values are stored in a base unit (microseconds or
+ * bytes) with two significant digits and exported as cumulative buckets in the Prometheus unit
+ * (seconds or bytes), so series from several instances can still be aggregated.
+ */
+public final class HistogramFamily extends MetricFamily<Histogram> {
+
+    private final long unitDivisor;
+    private final double exportScale;
+    private final long highestValue;
+    private final long[] bucketBounds;
+    private final String[] bucketLabels;
+
+    HistogramFamily(String name, String help, String labelName,
+                    long unitDivisor, double exportScale, long highestValue, double[] buckets) {
+        super(name, help, labelName);
+        this.unitDivisor = unitDivisor;
+        this.exportScale = exportScale;
+        this.highestValue = highestValue;
+        this.bucketBounds = new long[buckets.length];
+        this.bucketLabels = new String[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            bucketBounds[i] = Math.round(buckets[i] / exportScale);
+            bucketLabels[i] = PrometheusWriter.formatDouble(buckets[i]);
+        }
+    }
+
+    long unitDivisor() {
+        return unitDivisor;
+    }
+
+    long highestValue() {
+        return highestValue;
+    }
+
+    long[] bucketBounds() {
+        return bucketBounds;
+    }
+
+    @Override
+    Histogram newSeries() {
+        return new Histogram(this);
+    }
+
+    @Override
+    String type() {
+        return "histogram";
+    }
+
+    @Override
+    void writeSeries(PrometheusWriter writer, String labelValue, Histogram histogram) {
+        long[] counts = new long[bucketBounds.length];
+        long[] totals = new long[2];
+        histogram.snapshot(counts, totals);
+        for (int i = 0; i < counts.length; i++) {
+            writer.sample(name(), "_bucket", labelName(), labelValue, bucketLabels[i], counts[i]);
+        }
+        writer.sample(name(), "_bucket", labelName(), labelValue, "+Inf", totals[0]);
+        writer.sample(name(), "_sum", labelName(), labelValue, null, totals[1] * exportScale);
+        writer.sample(name(), "_count", labelName(), labelValue, null, totals[0]);
+    }
+}
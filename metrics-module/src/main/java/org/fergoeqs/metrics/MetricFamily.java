@@ -0,0 +1,62 @@
+package org.fergoeqs.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A named metric with at most one label. Series are created on first use and looked up with a plain
+ * {@link ConcurrentHashMap#get}, so the hot path allocates nothing once a label value has been seen.
+ * Callers should pass label values that are constants or otherwise reused strings (route ids, method
+ * names, URL templates), never raw request data.
+ */
+public abstract class MetricFamily<S> {
+
+    // keeps a misbehaving label from growing the scrape without bound
+    static final int MAX_SERIES = 500;
+    static final String OVERFLOW_LABEL = "other";
+
+    private final String name;
+    private final String help;
+    private final String labelName;
+    private final Map<String, S> series = new ConcurrentHashMap<>();
+
+    MetricFamily(String name, String help, String labelName) {
+        this.name = name;
+        this.help = help;
+        this.labelName = labelName;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public S labels(String value) {
+        String key = value == null ? "" : value;
+        S existing = series.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (series.size() >= MAX_SERIES) {
+            key = OVERFLOW_LABEL;
+        }
+        return series.computeIfAbsent(key, ignored -> newSeries());
+    }
+
+    abstract S newSeries();
+
+    abstract String type();
+
+    abstract void writeSeries(PrometheusWriter writer, String labelValue, S series);
+
+    void write(PrometheusWriter writer) {
+        if (series.isEmpty()) {
+            return;
+        }
+        writer.header(name, help, type());
+        series.forEach((labelValue, s) -> writeSeries(writer, labelValue, s));
+    }
+
+    String labelName() {
+        return labelName;
+    }
+}
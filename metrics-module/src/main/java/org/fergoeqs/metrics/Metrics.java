@@ -0,0 +1,95 @@
+package org.fergoeqs.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Process-wide registry shared by the gateway, orgdirectory, web and EJB services. The standard families
+ * below give every service the same metric names; look a series up once per call with
+ * {@code Metrics.HTTP_REQUEST_SECONDS.labels(endpoint).recordSince(start)} and keep label values to
+ * reused strings. {@link #scrape()} renders everything in Prometheus text format.
+ */
+public final class Metrics {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] LATENCY_BUCKETS =
+            {0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30};
+    private static final double[] SIZE_BUCKETS =
+            {256, 1024, 4096, 16384, 65536, 262144, 1048576, 4194304, 16777216};
+    // one hour in microseconds, one GiB in bytes: anything larger is clamped
+    private static final long MAX_LATENCY_MICROS = 3_600_000_000L;
+    private static final long MAX_SIZE_BYTES = 1L << 30;
+
+    private static final List<MetricFamily<?>> FAMILIES = new CopyOnWriteArrayList<>();
+    private static final Map<String, MetricFamily<?>> BY_NAME = new ConcurrentHashMap<>();
+
+    public static final HistogramFamily HTTP_REQUEST_SECONDS =
+            latency("http_server_request_seconds", "Time to serve an HTTP request, by endpoint", "endpoint");
+    public static final CounterFamily HTTP_ERRORS =
+            counter("http_server_errors_total", "HTTP requests answered with 5xx or failed, by endpoint", "endpoint");
+    public static final HistogramFamily HTTP_RESPONSE_BYTES =
+            size("http_server_response_bytes", "HTTP response body size, by endpoint", "endpoint");
+
+    public static final HistogramFamily EJB_CALL_SECONDS =
+            latency("ejb_client_call_seconds", "Time of a remote EJB call as seen by the caller, by method", "method");
+    public static final CounterFamily EJB_CALL_ERRORS =
+            counter("ejb_client_call_errors_total", "Remote EJB calls that threw, by method", "method");
+
+    public static final HistogramFamily SOAP_CALL_SECONDS =
+            latency("soap_client_call_seconds", "Time of an outgoing SOAP call, by operation", "operation");
+    public static final CounterFamily SOAP_CALL_ERRORS =
+            counter("soap_client_call_errors_total", "Outgoing SOAP calls that failed, by operation", "operation");
+    public static final HistogramFamily SOAP_RESPONSE_BYTES =
+            size("soap_client_response_bytes", "Size of the result carried by a SOAP response, by operation", "operation");
+
+    public static final HistogramFamily QUERY_SECONDS =
+            latency("repository_query_seconds", "Time spent in a repository method, by method", "query");
+    public static final CounterFamily QUERY_ERRORS =
+            counter("repository_query_errors_total", "Repository methods that threw, by method", "query");
+
+    private Metrics() {
+    }
+
+    public static HistogramFamily latency(String name, String help, String labelName) {
+        return register(new HistogramFamily(name, help, labelName,
+                1_000, 1e-6, MAX_LATENCY_MICROS, LATENCY_BUCKETS));
+    }
+
+    public static HistogramFamily size(String name, String help, String labelName) {
+        return register(new HistogramFamily(name, help, labelName,
+                1, 1, MAX_SIZE_BYTES, SIZE_BUCKETS));
+    }
+
+    public static CounterFamily counter(String name, String help, String labelName) {
+        return register(new CounterFamily(name, help, labelName));
+    }
+
+    public static GaugeFamily gauge(String name, String help, String labelName) {
+        return register(new GaugeFamily(name, help, labelName));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <F extends MetricFamily<?>> F register(F family) {
+        MetricFamily<?> existing = BY_NAME.putIfAbsent(family.name(), family);
+        if (existing != null) {
+            if (existing.getClass() != family.getClass()) {
+                throw new IllegalArgumentException("Metric " + family.name() + " is already registered with another type");
+            }
+            return (F) existing;
+        }
+        FAMILIES.add(family);
+        return family;
+    }
+
+    public static String scrape() {
+        StringBuilder out = new StringBuilder(8192);
+        PrometheusWriter writer = new PrometheusWriter(out);
+        for (MetricFamily<?> family : FAMILIES) {
+            family.write(writer);
+        }
+        return out.toString();
+    }
+}
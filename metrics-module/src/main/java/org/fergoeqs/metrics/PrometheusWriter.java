@@ -0,0 +1,65 @@
+package org.fergoeqs.metrics;
+
+import java.math.BigDecimal;
+
+/** Prometheus text exposition format 0.0.4. */
+final class PrometheusWriter {
+
+    private final StringBuilder out;
+
+    PrometheusWriter(StringBuilder out) {
+        this.out = out;
+    }
+
+    void header(String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    void sample(String name, String suffix, String labelName, String labelValue, String le, long value) {
+        labels(name, suffix, labelName, labelValue, le);
+        out.append(value).append('\n');
+    }
+
+    void sample(String name, String suffix, String labelName, String labelValue, String le, double value) {
+        labels(name, suffix, labelName, labelValue, le);
+        out.append(formatDouble(value)).append('\n');
+    }
+
+    private void labels(String name, String suffix, String labelName, String labelValue, String le) {
+        out.append(name).append(suffix);
+        boolean labelled = labelName != null;
+        if (labelled || le != null) {
+            out.append('{');
+            if (labelled) {
+                out.append(labelName).append("=\"");
+                escape(labelValue);
+                out.append('"');
+            }
+            if (le != null) {
+                out.append(labelled ? ",le=\"" : "le=\"").append(le).append('"');
+            }
+            out.append('}');
+        }
+        out.append(' ');
+    }
+
+    private void escape(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '"' -> out.append("\\\"");
+                case '\n' -> out.append("\\n");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    static String formatDouble(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return Double.toString(value);
+        }
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,34 @@
+package org.fergoeqs.config;
+
+import org.fergoeqs.metrics.Metrics;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+// Latency and 5xx count per mapped URL pattern; the pattern strings come from the handler mappings and are reused.
+public class MetricsInterceptor implements HandlerInterceptor {
+
+    private static final String STARTED = MetricsInterceptor.class.getName() + ".started";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(STARTED, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object started = request.getAttribute(STARTED);
+        if (!(started instanceof Long)) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = pattern instanceof String ? (String) pattern : "unmatched";
+        Metrics.HTTP_REQUEST_SECONDS.labels(endpoint).recordSince((Long) started);
+        if (ex != null || response.getStatus() >= 500) {
+            Metrics.HTTP_ERRORS.labels(endpoint).increment();
+        }
+    }
+}
@@ -28,6 +28,10 @@ public class SoapClientConfig {
                 FilterCondition.class,
                 SortOptions.class,
                 SortOption.class,
+                OrganizationPage.class,
+                Organization.class,
+                Coordinates.class,
+                Address.class,
                 ObjectFactory.class
         );
         return marshaller;
@@ -1,6 +1,7 @@
 package org.fergoeqs.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -14,6 +15,11 @@ public class WebMvcConfig implements WebMvcConfigurer {
         configurer.setUseTrailingSlashMatch(false);
     }
 
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new MetricsInterceptor());
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // не обрабатываем /ws/* пути, оставляем на спринг вс
@@ -0,0 +1,14 @@
+package org.fergoeqs.controllers;
+
+import org.fergoeqs.metrics.Metrics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class MetricsController {
+
+    @GetMapping(value = "/metrics", produces = Metrics.CONTENT_TYPE)
+    public String scrape() {
+        return Metrics.scrape();
+    }
+}
@@ -1,10 +1,14 @@
 package org.fergoeqs.controllers;
 
 import lombok.RequiredArgsConstructor;
-import org.fergoeqs.service.SoapClientService;
+import org.fergoeqs.dtos.FilterConditionDTO;
+import org.fergoeqs.dtos.SortOptionDTO;
+import org.fergoeqs.service.OrgDirectoryQueryService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -12,7 +16,7 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class OrgDirectoryController {
 
-    private final SoapClientService soapClientService;
+    private final OrgDirectoryQueryService queryService;
 
     @PostMapping("/filter/turnover")
     public ResponseEntity<Object> filterByTurnover(@RequestBody Map<String, Object> body) {
@@ -60,11 +64,11 @@ public class OrgDirectoryController {
             }
         }
 
-        Object result = soapClientService.filterByTurnover(
+        Object result = queryService.filterByTurnover(
                 min,
                 max,
-                (java.util.List<Map<String, Object>>) body.getOrDefault("filters", java.util.List.of()),
-                (java.util.List<Map<String, Object>>) body.getOrDefault("sort", java.util.List.of()),
+                toFilters((List<Map<String, Object>>) body.getOrDefault("filters", List.of())),
+                toSort((List<Map<String, Object>>) body.getOrDefault("sort", List.of())),
                 page,
                 size
         );
@@ -98,13 +102,45 @@ public class OrgDirectoryController {
             }
         }
 
-        Object result = soapClientService.orderOrganizations(
-                (java.util.List<Map<String, Object>>) body.get("sort"),
-                (java.util.List<Map<String, Object>>) body.getOrDefault("filters", java.util.List.of()),
+        List<SortOptionDTO> sort = toSort((List<Map<String, Object>>) body.get("sort"));
+        if (sort.isEmpty()) {
+            return ResponseEntity.badRequest().body("Missing sort criteria");
+        }
+
+        Object result = queryService.orderOrganizations(
+                sort,
+                toFilters((List<Map<String, Object>>) body.getOrDefault("filters", List.of())),
                 page,
                 size
         );
 
         return ResponseEntity.ok(result);
     }
+
+    private static List<FilterConditionDTO> toFilters(List<Map<String, Object>> filters) {
+        List<FilterConditionDTO> result = new ArrayList<>();
+        if (filters != null) {
+            for (Map<String, Object> f : filters) {
+                result.add(new FilterConditionDTO((String) f.get("field"), (String) f.get("operator"), f.get("value")));
+            }
+        }
+        return result;
+    }
+
+    private static List<SortOptionDTO> toSort(List<Map<String, Object>> sort) {
+        List<SortOptionDTO> result = new ArrayList<>();
+        if (sort != null) {
+            for (Map<String, Object> s : sort) {
+                Integer priority = null;
+                Object priorityObj = s.get("priority");
+                if (priorityObj instanceof Number) {
+                    priority = ((Number) priorityObj).intValue();
+                } else if (priorityObj instanceof String) {
+                    priority = Integer.parseInt((String) priorityObj);
+                }
+                result.add(new SortOptionDTO((String) s.get("field"), (String) s.get("direction"), priority));
+            }
+        }
+        return result;
+    }
 }
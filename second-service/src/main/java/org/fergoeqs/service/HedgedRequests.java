@@ -0,0 +1,161 @@
+package org.fergoeqs.service;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.fergoeqs.metrics.CounterFamily;
+import org.fergoeqs.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Opt-in hedging for calls to the organization service (orgdirectory.hedging.enabled). When the first
+ * attempt has not answered within the hedge delay, a duplicate is sent the same way. Whichever attempt
+ * signals first wins and the other is cancelled. An attempt that fails while the other is still running
+ * is ignored, so the caller only sees an error once both have failed.
+ * <p>
+ * Both attempts go to gateway-service, which picks the organization-service instance from Consul with its
+ * own round-robin shared by all traffic. The duplicate therefore usually lands on another instance, but
+ * under concurrent traffic it can land on the same one; this service cannot see or exclude the instance
+ * the first attempt used.
+ * <p>
+ * The delay is orgdirectory.hedging.delay-ms, or when that is 0 the observed percentile
+ * (orgdirectory.hedging.percentile, p95 by default) of time to first response over the last interval.
+ * Hedges draw on a global budget that every call tops up by orgdirectory.hedging.budget-percent of a
+ * hedge, so they never exceed that share of the calls and a slow cluster is not hit with double load.
+ */
+@Component
+public class HedgedRequests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HedgedRequests.class);
+
+    private static final CounterFamily HEDGES = Metrics.counter("orgdirectory_hedge_total",
+            "Hedged calls to the organization service: sent, won (answered first) or denied (no budget)", "outcome");
+
+    private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(5);
+    // fewer samples than this in an interval keep the previous delay
+    private static final long MIN_SAMPLES = 50;
+    private static final long MIN_DELAY_MILLIS = 5;
+    // budget is kept in thousandths of a hedge; at most this many hedges can be saved up
+    private static final long HEDGE_COST = 1_000;
+    private static final long MAX_BUDGET = 10 * HEDGE_COST;
+
+    private final boolean enabled;
+    private final long fixedDelayMillis;
+    private final double percentile;
+    private final long depositPerCall;
+
+    private final Recorder latencies = new Recorder(2);
+    private final AtomicLong budget = new AtomicLong(HEDGE_COST);
+    private volatile long delayMillis;
+    private volatile long refreshedAt = System.nanoTime();
+    private Histogram interval;
+
+    public HedgedRequests(@Value("${orgdirectory.hedging.enabled:false}") boolean enabled,
+                          @Value("${orgdirectory.hedging.delay-ms:0}") long fixedDelayMillis,
+                          @Value("${orgdirectory.hedging.initial-delay-ms:250}") long initialDelayMillis,
+                          @Value("${orgdirectory.hedging.percentile:95}") double percentile,
+                          @Value("${orgdirectory.hedging.budget-percent:10}") int budgetPercent) {
+        this.enabled = enabled;
+        this.fixedDelayMillis = fixedDelayMillis;
+        this.percentile = percentile;
+        this.depositPerCall = HEDGE_COST * budgetPercent / 100;
+        this.delayMillis = fixedDelayMillis > 0 ? fixedDelayMillis : initialDelayMillis;
+        Metrics.gauge("orgdirectory_hedge_delay_milliseconds",
+                "Current wait before a call to the organization service is hedged", null).labels("").track(() -> delayMillis);
+        if (enabled) {
+            LOGGER.info("Hedging enabled: delay {}, budget {}% of calls",
+                    fixedDelayMillis > 0 ? fixedDelayMillis + " ms" : "p" + percentile, budgetPercent);
+        }
+    }
+
+    /** Runs {@code attempt} once, or twice when hedging is on and the first one is slow. */
+    public <T> Flux<T> hedge(Supplier<Flux<T>> attempt) {
+        if (!enabled) {
+            return Flux.defer(attempt);
+        }
+        return Flux.defer(() -> {
+            deposit();
+            // both attempts measure from here: timing a winning hedge from its own start would pull the delay down
+            long started = System.nanoTime();
+            AtomicInteger running = new AtomicInteger(1);
+            AtomicBoolean answered = new AtomicBoolean();
+
+            Flux<T> primary = attempt(attempt, started, running, answered, false);
+            Flux<T> hedged = Mono.delay(Duration.ofMillis(delay()))
+                    .flatMapMany(ignored -> {
+                        if (!withdraw()) {
+                            HEDGES.labels("denied").increment();
+                            return Flux.never();
+                        }
+                        HEDGES.labels("sent").increment();
+                        running.incrementAndGet();
+                        return attempt(attempt, started, running, answered, true);
+                    });
+            return Flux.firstWithSignal(primary, hedged);
+        });
+    }
+
+    private <T> Flux<T> attempt(Supplier<Flux<T>> attempt, long started, AtomicInteger running, AtomicBoolean answered,
+                                boolean hedge) {
+        return Flux.defer(attempt)
+                .doOnNext(ignored -> {
+                    if (answered.compareAndSet(false, true)) {
+                        latencies.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started)));
+                        if (hedge) {
+                            HEDGES.labels("won").increment();
+                        }
+                    }
+                })
+                // the loser is cancelled: it no longer counts, so the winner's own failures still surface
+                .doOnCancel(running::decrementAndGet)
+                .onErrorResume(e -> running.decrementAndGet() > 0 ? Flux.never() : Flux.error(e));
+    }
+
+    private long delay() {
+        if (fixedDelayMillis > 0) {
+            return fixedDelayMillis;
+        }
+        long now = System.nanoTime();
+        if (now - refreshedAt >= REFRESH_NANOS) {
+            refresh(now);
+        }
+        return delayMillis;
+    }
+
+    private synchronized void refresh(long now) {
+        if (now - refreshedAt < REFRESH_NANOS) {
+            return;
+        }
+        refreshedAt = now;
+        interval = latencies.getIntervalHistogram(interval);
+        if (interval.getTotalCount() >= MIN_SAMPLES) {
+            delayMillis = Math.max(MIN_DELAY_MILLIS, interval.getValueAtPercentile(percentile) / 1000);
+        }
+    }
+
+    private void deposit() {
+        budget.updateAndGet(current -> Math.min(MAX_BUDGET, current + depositPerCall));
+    }
+
+    private boolean withdraw() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < HEDGE_COST) {
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - HEDGE_COST));
+        return true;
+    }
+}
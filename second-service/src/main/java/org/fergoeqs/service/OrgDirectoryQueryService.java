@@ -0,0 +1,132 @@
+package org.fergoeqs.service;
+
+import lombok.RequiredArgsConstructor;
+import org.fergoeqs.dtos.FilterConditionDTO;
+import org.fergoeqs.dtos.FilterRequestDTO;
+import org.fergoeqs.dtos.SortOptionDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The orgdirectory queries themselves, shared by the REST controller and the SOAP endpoint so that REST
+ * requests go straight to the organization service instead of looping through this service's own /ws.
+ * Object results go through {@link QueryResultCache}; the streamed pages are passed through uncached.
+ * Calls that miss the cache may be hedged by {@link HedgedRequests}, and wide turnover searches are
+ * split across instances by {@link TurnoverScatterGather}.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrgDirectoryQueryService {
+
+    private static final int DEFAULT_PAGE = 0;
+    private static final int DEFAULT_SIZE = 20;
+
+    private static final Comparator<FilterConditionDTO> FILTER_ORDER = Comparator
+            .comparing(FilterConditionDTO::field, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(FilterConditionDTO::operator, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(filter -> String.valueOf(filter.value()));
+
+    private final WebClient webClient;
+    private final QueryResultCache resultCache;
+    private final HedgedRequests hedgedRequests;
+    private final TurnoverScatterGather scatterGather;
+
+    @Value("${first-service.base-url}")
+    private String firstServiceBaseUrl;
+
+    public Object filterByTurnover(int min, int max, List<FilterConditionDTO> filters, List<SortOptionDTO> sort,
+                                   Integer page, Integer size) {
+        FilterRequestDTO request = request(turnoverConditions(min, max, filters), sort, page, size);
+        if (scatterGather.isCandidate(min, max, request)) {
+            return resultCache.get(request, () -> scatterGather.search(min, max, request, this::hedgedSearch));
+        }
+        return cachedSearch(request);
+    }
+
+    public Object orderOrganizations(List<SortOptionDTO> sort, List<FilterConditionDTO> filters,
+                                     Integer page, Integer size) {
+        return cachedSearch(request(filters, requireSort(sort), page, size));
+    }
+
+    // the raw JSON page as it arrives, for callers that transcode it without building objects
+    public Flux<DataBuffer> streamFilterByTurnover(int min, int max, List<FilterConditionDTO> filters,
+                                                   List<SortOptionDTO> sort, Integer page, Integer size) {
+        return stream(request(turnoverConditions(min, max, filters), sort, page, size));
+    }
+
+    public Flux<DataBuffer> streamOrderOrganizations(List<SortOptionDTO> sort, List<FilterConditionDTO> filters,
+                                                     Integer page, Integer size) {
+        return stream(request(filters, requireSort(sort), page, size));
+    }
+
+    private static List<FilterConditionDTO> turnoverConditions(int min, int max, List<FilterConditionDTO> filters) {
+        if (min > max) {
+            throw new IllegalArgumentException("Invalid turnover range: min > max");
+        }
+        List<FilterConditionDTO> conditions = new ArrayList<>(filters);
+        conditions.add(new FilterConditionDTO("annualTurnover", "between", List.of(min, max)));
+        return conditions;
+    }
+
+    private static List<SortOptionDTO> requireSort(List<SortOptionDTO> sort) {
+        if (sort == null || sort.isEmpty()) {
+            throw new IllegalArgumentException("Missing sort criteria");
+        }
+        return sort;
+    }
+
+    private Object cachedSearch(FilterRequestDTO request) {
+        return resultCache.get(request, () -> hedgedSearch(request).block());
+    }
+
+    private Mono<Object> hedgedSearch(FilterRequestDTO request) {
+        return hedgedRequests
+                .hedge(() -> search(request).bodyToMono(Object.class).flux())
+                .next();
+    }
+
+    // a hedge wins the stream by sending its first chunk before the other attempt does
+    private Flux<DataBuffer> stream(FilterRequestDTO request) {
+        return hedgedRequests.hedge(() -> search(request).bodyToFlux(DataBuffer.class));
+    }
+
+    private WebClient.ResponseSpec search(FilterRequestDTO request) {
+        return webClient.post()
+                .uri(firstServiceBaseUrl + "/search")
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .retrieve();
+    }
+
+    // one canonical form per query, so that it can key the result cache: the filters are ANDed and go in
+    // a fixed order, sort keeps its order (it is significant) with the direction spelled out, defaults applied
+    private static FilterRequestDTO request(List<FilterConditionDTO> filters, List<SortOptionDTO> sort,
+                                            Integer page, Integer size) {
+        List<FilterConditionDTO> normalizedFilters = new ArrayList<>(filters != null ? filters : List.of());
+        normalizedFilters.sort(FILTER_ORDER);
+
+        List<SortOptionDTO> normalizedSort = new ArrayList<>();
+        if (sort != null) {
+            for (SortOptionDTO option : sort) {
+                String direction = "desc".equalsIgnoreCase(option.direction()) ? "desc" : "asc";
+                normalizedSort.add(new SortOptionDTO(option.field(), direction, option.priority()));
+            }
+        }
+
+        return new FilterRequestDTO(
+                List.copyOf(normalizedFilters),
+                List.copyOf(normalizedSort),
+                page != null ? page : DEFAULT_PAGE,
+                size != null ? size : DEFAULT_SIZE
+        );
+    }
+}
@@ -0,0 +1,141 @@
+package org.fergoeqs.service;
+
+import org.fergoeqs.dtos.FilterRequestDTO;
+import org.fergoeqs.metrics.CounterFamily;
+import org.fergoeqs.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Search results by normalized request, kept in this replica's memory only: each orgdirectory-service
+ * instance has its own cache. Entries expire after orgdirectory.cache.ttl-seconds and the least recently
+ * used ones go once orgdirectory.cache.max-entries is reached. Identical misses that arrive while the
+ * first one is still loading wait for that load instead of sending their own search. Failures are not
+ * cached. Cached results are shared between callers, which only serialize them.
+ */
+@Component
+public class QueryResultCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryResultCache.class);
+
+    private static final CounterFamily LOOKUPS = Metrics.counter("orgdirectory_cache_lookups_total",
+            "Result cache lookups by outcome: hit, miss (loaded) or coalesced (waited for a load)", "result");
+    private static final CounterFamily EVICTIONS = Metrics.counter("orgdirectory_cache_evictions_total",
+            "Result cache entries dropped, by reason", "reason");
+
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    // access order, so the eldest entry is the least recently used one
+    private final LinkedHashMap<FilterRequestDTO, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FilterRequestDTO, Entry> eldest) {
+            if (size() > maxEntries) {
+                EVICTIONS.labels("size").increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private final ConcurrentHashMap<FilterRequestDTO, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public QueryResultCache(@Value("${orgdirectory.cache.max-entries:1000}") int maxEntries,
+                            @Value("${orgdirectory.cache.ttl-seconds:30}") long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        LOGGER.info("Result cache: {} entries, {} s TTL", maxEntries, ttlSeconds);
+    }
+
+    public Object get(FilterRequestDTO key, Supplier<Object> loader) {
+        if (maxEntries <= 0 || ttlNanos <= 0) {
+            return loader.get();
+        }
+
+        Object cached = lookup(key);
+        if (cached != null) {
+            LOOKUPS.labels("hit").increment();
+            return cached;
+        }
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, load);
+        if (running != null) {
+            LOOKUPS.labels("coalesced").increment();
+            return await(running);
+        }
+
+        try {
+            // a load for this key may have finished between the lookup and claiming it
+            Object value = lookup(key);
+            if (value != null) {
+                LOOKUPS.labels("hit").increment();
+            } else {
+                LOOKUPS.labels("miss").increment();
+                value = loader.get();
+                store(key, value);
+            }
+            load.complete(value);
+            return value;
+        } catch (Throwable e) {
+            // waiters block on this future, so it has to end on an Error (OutOfMemoryError, StackOverflowError) too
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    private synchronized Object lookup(FilterRequestDTO key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.storedAt >= ttlNanos) {
+            entries.remove(key);
+            EVICTIONS.labels("expired").increment();
+            return null;
+        }
+        return entry.value;
+    }
+
+    private synchronized void store(FilterRequestDTO key, Object value) {
+        if (value != null) {
+            entries.put(key, new Entry(value, System.nanoTime()));
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final long storedAt;
+
+        Entry(Object value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package org.fergoeqs.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.fergoeqs.metrics.Metrics;
 import org.fergoeqs.soap.*;
 import org.springframework.stereotype.Service;
 import org.springframework.ws.client.core.WebServiceTemplate;
@@ -11,16 +12,123 @@ import org.springframework.ws.soap.client.core.SoapActionCallback;
 import java.util.List;
 import java.util.Map;
 
+// Client side of the orgdirectory SOAP contract. The REST controller no longer calls it, it uses
+// OrgDirectoryQueryService in-process; this stays for callers that really need to go through /ws.
 @Service
 @RequiredArgsConstructor
 public class SoapClientService {
 
+    private static final String FILTER_BY_TURNOVER = "FilterByTurnover";
+    private static final String ORDER_ORGANIZATIONS = "OrderOrganizations";
+    private static final String FILTER_BY_TURNOVER_PAGE = "FilterByTurnoverPage";
+    private static final String ORDER_ORGANIZATIONS_PAGE = "OrderOrganizationsPage";
+
     private final WebServiceTemplate webServiceTemplate;
     private final ObjectFactory objectFactory;
     private final ObjectMapper objectMapper;
 
     public Object filterByTurnover(Integer min, Integer max, List<Map<String, Object>> filters, 
                                    List<Map<String, Object>> sort, Integer page, Integer size) {
+        FilterByTurnoverRequest request = filterByTurnoverRequest(min, max, filters, sort, page, size);
+
+        javax.xml.bind.JAXBElement<FilterByTurnoverRequest> requestElement = 
+                objectFactory.createFilterByTurnoverRequest(request);
+        
+        javax.xml.bind.JAXBElement<FilterByTurnoverResponse> response = 
+                (javax.xml.bind.JAXBElement<FilterByTurnoverResponse>) send(
+                        FILTER_BY_TURNOVER,
+                        requestElement,
+                        "http://fergoeqs.org/orgdirectory/FilterByTurnoverRequest"
+                );
+
+        Object result = response.getValue().getResult();
+        recordResultSize(FILTER_BY_TURNOVER, result);
+        
+        if (result instanceof String) {
+            try {
+                return objectMapper.readValue((String) result, Object.class);
+            } catch (JsonProcessingException e) {
+                System.err.println(">>> Warning: Failed to parse JSON result, returning as string: " + e.getMessage());
+                return result;
+            }
+        }
+        
+        return result;
+    }
+
+    public Object orderOrganizations(List<Map<String, Object>> sort, 
+                                     List<Map<String, Object>> filters, 
+                                     Integer page, Integer size) {
+        OrderOrganizationsRequest request = orderOrganizationsRequest(sort, filters, page, size);
+
+        System.out.println(">>> Creating OrderOrganizationsRequest SOAP call");
+        System.out.println(">>> sort options count: " + (request.getSort() != null && request.getSort().getSortOption() != null ? request.getSort().getSortOption().size() : 0));
+        System.out.println(">>> page: " + request.getPage());
+        System.out.println(">>> size: " + request.getSize());
+        
+        javax.xml.bind.JAXBElement<OrderOrganizationsRequest> requestElement = 
+                objectFactory.createOrderOrganizationsRequest(request);
+        
+        try {
+            javax.xml.bind.JAXBElement<OrderOrganizationsResponse> response = 
+                    (javax.xml.bind.JAXBElement<OrderOrganizationsResponse>) send(
+                            ORDER_ORGANIZATIONS,
+                            requestElement,
+                            "http://fergoeqs.org/orgdirectory/OrderOrganizationsRequest"
+                    );
+
+            Object result = response.getValue().getResult();
+            recordResultSize(ORDER_ORGANIZATIONS, result);
+        
+        if (result instanceof String) {
+            try {
+                return objectMapper.readValue((String) result, Object.class);
+            } catch (JsonProcessingException e) {
+                System.err.println(">>> Warning: Failed to parse JSON result, returning as string: " + e.getMessage());
+                return result;
+            }
+        }
+        
+        return result;
+        } catch (Exception e) {
+            System.err.println(">>> Error in SOAP call: " + e.getMessage());
+            e.printStackTrace();
+            throw e;
+        }
+    }
+
+    // typed page operations: the rows arrive as OrganizationPage elements, there is no JSON to parse
+    public OrganizationPage filterByTurnoverPage(Integer min, Integer max, List<Map<String, Object>> filters,
+                                                 List<Map<String, Object>> sort, Integer page, Integer size) {
+        FilterByTurnoverRequest request = filterByTurnoverRequest(min, max, filters, sort, page, size);
+
+        javax.xml.bind.JAXBElement<OrganizationPage> response =
+                (javax.xml.bind.JAXBElement<OrganizationPage>) send(
+                        FILTER_BY_TURNOVER_PAGE,
+                        objectFactory.createFilterByTurnoverPageRequest(request),
+                        "http://fergoeqs.org/orgdirectory/FilterByTurnoverPageRequest"
+                );
+        return response.getValue();
+    }
+
+    public OrganizationPage orderOrganizationsPage(List<Map<String, Object>> sort,
+                                                   List<Map<String, Object>> filters,
+                                                   Integer page, Integer size) {
+        OrderOrganizationsRequest request = orderOrganizationsRequest(sort, filters, page, size);
+
+        javax.xml.bind.JAXBElement<OrganizationPage> response =
+                (javax.xml.bind.JAXBElement<OrganizationPage>) send(
+                        ORDER_ORGANIZATIONS_PAGE,
+                        objectFactory.createOrderOrganizationsPageRequest(request),
+                        "http://fergoeqs.org/orgdirectory/OrderOrganizationsPageRequest"
+                );
+        return response.getValue();
+    }
+
+    private static FilterByTurnoverRequest filterByTurnoverRequest(Integer min, Integer max,
+                                                                   List<Map<String, Object>> filters,
+                                                                   List<Map<String, Object>> sort,
+                                                                   Integer page, Integer size) {
         FilterByTurnoverRequest request = new FilterByTurnoverRequest();
         request.setMinAnnualTurnover(min);
         request.setMaxAnnualTurnover(max);
@@ -68,33 +176,12 @@ public class SoapClientService {
             request.setSort(sortOptions);
         }
 
-        javax.xml.bind.JAXBElement<FilterByTurnoverRequest> requestElement = 
-                objectFactory.createFilterByTurnoverRequest(request);
-        
-        javax.xml.bind.JAXBElement<FilterByTurnoverResponse> response = 
-                (javax.xml.bind.JAXBElement<FilterByTurnoverResponse>) webServiceTemplate
-                        .marshalSendAndReceive(
-                                requestElement,
-                                new SoapActionCallback("http://fergoeqs.org/orgdirectory/FilterByTurnoverRequest")
-                        );
-
-        Object result = response.getValue().getResult();
-        
-        if (result instanceof String) {
-            try {
-                return objectMapper.readValue((String) result, Object.class);
-            } catch (JsonProcessingException e) {
-                System.err.println(">>> Warning: Failed to parse JSON result, returning as string: " + e.getMessage());
-                return result;
-            }
-        }
-        
-        return result;
+        return request;
     }
 
-    public Object orderOrganizations(List<Map<String, Object>> sort, 
-                                     List<Map<String, Object>> filters, 
-                                     Integer page, Integer size) {
+    private static OrderOrganizationsRequest orderOrganizationsRequest(List<Map<String, Object>> sort,
+                                                                       List<Map<String, Object>> filters,
+                                                                       Integer page, Integer size) {
         OrderOrganizationsRequest request = new OrderOrganizationsRequest();
         
         if (sort == null || sort.isEmpty()) {
@@ -142,38 +229,25 @@ public class SoapClientService {
             request.setSize(20);
         }
 
-        System.out.println(">>> Creating OrderOrganizationsRequest SOAP call");
-        System.out.println(">>> sort options count: " + (request.getSort() != null && request.getSort().getSortOption() != null ? request.getSort().getSortOption().size() : 0));
-        System.out.println(">>> page: " + request.getPage());
-        System.out.println(">>> size: " + request.getSize());
-        
-        javax.xml.bind.JAXBElement<OrderOrganizationsRequest> requestElement = 
-                objectFactory.createOrderOrganizationsRequest(request);
-        
+        return request;
+    }
+
+    private Object send(String operation, Object requestElement, String soapAction) {
+        long started = System.nanoTime();
         try {
-            javax.xml.bind.JAXBElement<OrderOrganizationsResponse> response = 
-                    (javax.xml.bind.JAXBElement<OrderOrganizationsResponse>) webServiceTemplate
-                            .marshalSendAndReceive(
-                                    requestElement,
-                                    new SoapActionCallback("http://fergoeqs.org/orgdirectory/OrderOrganizationsRequest")
-                            );
+            return webServiceTemplate.marshalSendAndReceive(requestElement, new SoapActionCallback(soapAction));
+        } catch (RuntimeException e) {
+            Metrics.SOAP_CALL_ERRORS.labels(operation).increment();
+            throw e;
+        } finally {
+            Metrics.SOAP_CALL_SECONDS.labels(operation).recordSince(started);
+        }
+    }
 
-            Object result = response.getValue().getResult();
-        
+    // the result is JSON text, so its length is close enough to the byte count
+    private static void recordResultSize(String operation, Object result) {
         if (result instanceof String) {
-            try {
-                return objectMapper.readValue((String) result, Object.class);
-            } catch (JsonProcessingException e) {
-                System.err.println(">>> Warning: Failed to parse JSON result, returning as string: " + e.getMessage());
-                return result;
-            }
-        }
-        
-        return result;
-        } catch (Exception e) {
-            System.err.println(">>> Error in SOAP call: " + e.getMessage());
-            e.printStackTrace();
-            throw e;
+            Metrics.SOAP_RESPONSE_BYTES.labels(operation).record(((String) result).length());
         }
     }
 }
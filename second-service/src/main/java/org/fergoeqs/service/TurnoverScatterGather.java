@@ -0,0 +1,353 @@
+package org.fergoeqs.service;
+
+import org.fergoeqs.dtos.FilterConditionDTO;
+import org.fergoeqs.dtos.FilterRequestDTO;
+import org.fergoeqs.dtos.SortOptionDTO;
+import org.fergoeqs.metrics.CounterFamily;
+import org.fergoeqs.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Scatter-gather for wide turnover searches. A count histogram of annualTurnover from the organization
+ * service's /aggregate splits [min, max] into sub-ranges of about equal size. Each sub-range is searched
+ * in parallel through the load-balanced WebClient for its first (page + 1) * size rows, and the sorted
+ * partial pages are k-way merged into the requested page.
+ * <p>
+ * The result must equal the serial search, so only sorts Java can order exactly like the database are
+ * split: numeric and date fields, always ending in the id tie-breaker the organization service appends.
+ * String sorts follow the database collation and stay serial. The page fields are rebuilt the way
+ * OrganizationServiceImpl does (exact count), including a nextCursor encoded like its KeysetCursor.
+ */
+@Component
+public class TurnoverScatterGather {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TurnoverScatterGather.class);
+
+    private static final CounterFamily SEARCHES = Metrics.counter("orgdirectory_scatter_gather_total",
+            "Turnover searches by execution: scattered, or serial because they were small or not splittable", "execution");
+
+    private static final String TURNOVER = "annualTurnover";
+    private static final String ID = "id";
+    // sort fields whose database order Java reproduces exactly; none of them can be null
+    private static final Set<String> ORDERABLE_FIELDS =
+            Set.of(ID, TURNOVER, "coordinates.x", "coordinates.y", "creationDate");
+    private static final int HISTOGRAM_BUCKETS = 256;
+
+    // must match KeysetCursor in the EJB module
+    private static final byte CURSOR_VERSION = 1;
+
+    private final WebClient webClient;
+    private final boolean enabled;
+    private final int partitions;
+    private final long minWindow;
+    private final long maxWindow;
+    private final long minRows;
+
+    @Value("${first-service.base-url}")
+    private String firstServiceBaseUrl;
+
+    public TurnoverScatterGather(WebClient webClient,
+                                 @Value("${orgdirectory.scatter.enabled:true}") boolean enabled,
+                                 @Value("${orgdirectory.scatter.partitions:4}") int partitions,
+                                 @Value("${orgdirectory.scatter.min-window:500}") long minWindow,
+                                 @Value("${orgdirectory.scatter.max-window:20000}") long maxWindow,
+                                 @Value("${orgdirectory.scatter.min-rows:5000}") long minRows) {
+        this.webClient = webClient;
+        this.enabled = enabled;
+        this.partitions = partitions;
+        this.minWindow = minWindow;
+        this.maxWindow = maxWindow;
+        this.minRows = minRows;
+    }
+
+    /** Whether the request is worth a histogram: a deep or large page over a range that can be split. */
+    public boolean isCandidate(int min, int max, FilterRequestDTO request) {
+        if (!enabled || partitions < 2 || min < 0 || (long) max - min + 1 < partitions) {
+            return false;
+        }
+        // every sub-range returns the whole window, so very deep pages cost more split than serial
+        long window = (long) (request.page() + 1) * request.size();
+        if (window < minWindow || window > maxWindow) {
+            return false;
+        }
+        for (SortOptionDTO option : request.sort()) {
+            if (!ORDERABLE_FIELDS.contains(option.field())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Searches {@code request} (whose filters include annualTurnover between min and max) split by turnover,
+     * or serially through {@code search} when the histogram shows it is too small or cannot be split.
+     */
+    public Object search(int min, int max, FilterRequestDTO request, Function<FilterRequestDTO, Mono<Object>> search) {
+        FilterConditionDTO range = new FilterConditionDTO(TURNOVER, "between", List.of(min, max));
+        List<int[]> ranges = split(min, max, request.filters());
+        if (ranges.size() < 2) {
+            SEARCHES.labels("serial").increment();
+            return search.apply(request).block();
+        }
+        SEARCHES.labels("scattered").increment();
+
+        int window = (request.page() + 1) * request.size();
+        List<Map<String, Object>> partial = Flux.fromIterable(ranges)
+                .flatMap(r -> search.apply(new FilterRequestDTO(
+                        withRange(request.filters(), range, r[0], r[1]), request.sort(), 0, window)), ranges.size())
+                .map(TurnoverScatterGather::asMap)
+                .collectList()
+                .block();
+
+        return gather(request, partial);
+    }
+
+    // sub-ranges of about equal row count, cut on histogram bucket edges; a single range means "do not split"
+    private List<int[]> split(int min, int max, List<FilterConditionDTO> filters) {
+        long bucketSize = Math.max(1, ((long) max - min + HISTOGRAM_BUCKETS) / HISTOGRAM_BUCKETS);
+        Map<String, Object> histogram;
+        try {
+            histogram = asMap(webClient.post()
+                    .uri(firstServiceBaseUrl + "/aggregate")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of(
+                            "groupBy", List.of(TURNOVER),
+                            "aggregates", List.of("count"),
+                            "filters", filters,
+                            "turnoverBucketSize", bucketSize,
+                            "page", 0,
+                            "size", HISTOGRAM_BUCKETS + 2))
+                    .retrieve()
+                    .bodyToMono(Object.class)
+                    .block());
+        } catch (RuntimeException e) {
+            LOGGER.warn("Turnover histogram failed, searching serially: {}", e.getMessage());
+            return List.of();
+        }
+        if (Boolean.TRUE.equals(histogram.get("hasNext"))) {
+            return List.of();
+        }
+
+        List<long[]> buckets = new ArrayList<>();
+        long total = 0;
+        for (Object group : (List<?>) histogram.get("groups")) {
+            Map<String, Object> keys = asMap(asMap(group).get("keys"));
+            Map<String, Object> values = asMap(asMap(group).get("values"));
+            long key = ((Number) keys.get(TURNOVER)).longValue();
+            long count = ((Number) values.get("count")).longValue();
+            buckets.add(new long[]{key, count});
+            total += count;
+        }
+        if (total < minRows) {
+            return List.of();
+        }
+        buckets.sort(Comparator.comparingLong(bucket -> bucket[0]));
+
+        List<int[]> ranges = new ArrayList<>();
+        long lower = min;
+        long seen = 0;
+        for (long[] bucket : buckets) {
+            seen += bucket[1];
+            long upper = Math.min(max, bucket[0] + bucketSize - 1);
+            if (ranges.size() < partitions - 1 && seen * partitions >= total * (ranges.size() + 1) && upper < max) {
+                ranges.add(new int[]{(int) lower, (int) upper});
+                lower = upper + 1;
+            }
+        }
+        ranges.add(new int[]{(int) lower, max});
+        return ranges;
+    }
+
+    private static List<FilterConditionDTO> withRange(List<FilterConditionDTO> filters, FilterConditionDTO range,
+                                                      int lower, int upper) {
+        List<FilterConditionDTO> result = new ArrayList<>(filters.size());
+        for (FilterConditionDTO filter : filters) {
+            result.add(filter.equals(range) ? new FilterConditionDTO(TURNOVER, "between", List.of(lower, upper)) : filter);
+        }
+        return result;
+    }
+
+    private Map<String, Object> gather(FilterRequestDTO request, List<Map<String, Object>> partial) {
+        List<SortOptionDTO> keys = sortKeys(request.sort());
+        Comparator<Map<String, Object>> order = rowOrder(keys);
+
+        long total = 0;
+        Object countMode = null;
+        PriorityQueue<PartialPage> heads = new PriorityQueue<>((a, b) -> order.compare(a.head(), b.head()));
+        for (Map<String, Object> page : partial) {
+            total += ((Number) page.get("totalElements")).longValue();
+            countMode = page.get("countMode");
+            List<Map<String, Object>> rows = rows(page);
+            if (!rows.isEmpty()) {
+                heads.add(new PartialPage(rows));
+            }
+        }
+
+        long skip = (long) request.page() * request.size();
+        List<Map<String, Object>> organizations = new ArrayList<>(request.size());
+        for (long position = 0; !heads.isEmpty() && organizations.size() < request.size(); position++) {
+            PartialPage next = heads.poll();
+            if (position >= skip) {
+                organizations.add(next.head());
+            }
+            if (next.advance()) {
+                heads.add(next);
+            }
+        }
+
+        boolean hasNext = total > skip + request.size();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("organizations", organizations);
+        result.put("totalPages", (int) Math.ceil((double) total / request.size()));
+        result.put("totalElements", total <= Integer.MAX_VALUE ? (Object) (int) total : (Object) total);
+        result.put("page", request.page());
+        result.put("size", organizations.size());
+        result.put("nextCursor", hasNext && !organizations.isEmpty()
+                ? cursor(keys, organizations.get(organizations.size() - 1)) : null);
+        result.put("hasNext", hasNext);
+        result.put("countMode", countMode);
+        return result;
+    }
+
+    // the requested sort plus the id tie-breaker, as KeysetCursor.sortKeys builds it
+    private static List<SortOptionDTO> sortKeys(List<SortOptionDTO> sort) {
+        List<SortOptionDTO> keys = new ArrayList<>();
+        for (SortOptionDTO option : sort) {
+            keys.add(option);
+            if (ID.equals(option.field())) {
+                return keys;
+            }
+        }
+        keys.add(new SortOptionDTO(ID, "asc", null));
+        return keys;
+    }
+
+    private static Comparator<Map<String, Object>> rowOrder(List<SortOptionDTO> keys) {
+        Comparator<Map<String, Object>> order = null;
+        for (SortOptionDTO key : keys) {
+            String field = key.field();
+            Comparator<Map<String, Object>> byKey = (a, b) -> compareValues(field, value(a, field), value(b, field));
+            if (isDescending(key)) {
+                byKey = byKey.reversed();
+            }
+            order = order == null ? byKey : order.thenComparing(byKey);
+        }
+        return order;
+    }
+
+    private static int compareValues(String field, Object a, Object b) {
+        if ("creationDate".equals(field)) {
+            return LocalDateTime.parse((String) a).compareTo(LocalDateTime.parse((String) b));
+        }
+        if (ID.equals(field) || TURNOVER.equals(field)) {
+            return Long.compare(((Number) a).longValue(), ((Number) b).longValue());
+        }
+        // SQL semantics: -0.0 and 0.0 are equal
+        double x = ((Number) a).doubleValue();
+        double y = ((Number) b).doubleValue();
+        return x < y ? -1 : x > y ? 1 : 0;
+    }
+
+    private static Object value(Map<String, Object> row, String field) {
+        int dot = field.indexOf('.');
+        if (dot < 0) {
+            return row.get(field);
+        }
+        Object parent = row.get(field.substring(0, dot));
+        return parent instanceof Map ? ((Map<?, ?>) parent).get(field.substring(dot + 1)) : null;
+    }
+
+    private static boolean isDescending(SortOptionDTO key) {
+        return "desc".equalsIgnoreCase(key.direction());
+    }
+
+    // byte for byte what KeysetCursor.encode produces for the same row, formatting values as the EJB's types would
+    private static String cursor(List<SortOptionDTO> keys, Map<String, Object> lastRow) {
+        StringBuilder shape = new StringBuilder();
+        for (SortOptionDTO key : keys) {
+            shape.append(key.field()).append(isDescending(key) ? ":desc" : ":asc").append('|');
+        }
+
+        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+             DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(CURSOR_VERSION);
+            out.writeInt(shape.toString().hashCode());
+            out.writeShort(keys.size());
+            for (SortOptionDTO key : keys) {
+                String value = cursorValue(key.field(), value(lastRow, key.field()));
+                out.writeBoolean(value != null);
+                if (value != null) {
+                    out.writeUTF(value);
+                }
+            }
+            out.flush();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode cursor", e);
+        }
+    }
+
+    private static String cursorValue(String field, Object value) {
+        if (value == null) {
+            return null;
+        }
+        return switch (field) {
+            case "id" -> Long.toString(((Number) value).longValue());
+            case "annualTurnover" -> Integer.toString(((Number) value).intValue());
+            case "coordinates.x" -> Double.toString(((Number) value).doubleValue());
+            case "coordinates.y" -> Float.toString(((Number) value).floatValue());
+            case "creationDate" -> LocalDateTime.parse((String) value).toString();
+            default -> throw new IllegalArgumentException("Field cannot be scattered: " + field);
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value) {
+        return (Map<String, Object>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> rows(Map<String, Object> page) {
+        Object rows = page.get("organizations");
+        return rows != null ? (List<Map<String, Object>>) rows : List.of();
+    }
+
+    private static final class PartialPage {
+
+        private final List<Map<String, Object>> rows;
+        private int position;
+
+        PartialPage(List<Map<String, Object>> rows) {
+            this.rows = rows;
+        }
+
+        Map<String, Object> head() {
+            return rows.get(position);
+        }
+
+        boolean advance() {
+            return ++position < rows.size();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.fergoeqs.soap;
+
+import javax.xml.bind.annotation.*;
+
+@XmlAccessorType(XmlAccessType.PROPERTY)
+@XmlType(name = "Address", propOrder = {
+    "street"
+})
+public class Address {
+
+    protected String street;
+
+    @XmlElement(namespace = "http://fergoeqs.org/orgdirectory", required = true)
+    public String getStreet() {
+        return street;
+    }
+
+    public void setStreet(String value) {
+        this.street = value;
+    }
+}
@@ -0,0 +1,32 @@
+package org.fergoeqs.soap;
+
+import javax.xml.bind.annotation.*;
+
+@XmlAccessorType(XmlAccessType.PROPERTY)
+@XmlType(name = "Coordinates", propOrder = {
+    "x",
+    "y"
+})
+public class Coordinates {
+
+    protected Double x;
+    protected Float y;
+
+    @XmlElement(namespace = "http://fergoeqs.org/orgdirectory", required = true)
+    public Double getX() {
+        return x;
+    }
+
+    public void setX(Double value) {
+        this.x = value;
+    }
+
+    @XmlElement(namespace = "http://fergoeqs.org/orgdirectory", required = true)
+    public Float getY() {
+        return y;
+    }
+
+    public void setY(Float value) {
+        this.y = value;
+    }
+}
@@ -12,6 +12,10 @@ public class ObjectFactory {
     private static final QName _FilterByTurnoverResponse_QNAME = new QName("http://fergoeqs.org/orgdirectory", "FilterByTurnoverResponse");
     private static final QName _OrderOrganizationsRequest_QNAME = new QName("http://fergoeqs.org/orgdirectory", "OrderOrganizationsRequest");
     private static final QName _OrderOrganizationsResponse_QNAME = new QName("http://fergoeqs.org/orgdirectory", "OrderOrganizationsResponse");
+    private static final QName _FilterByTurnoverPageRequest_QNAME = new QName("http://fergoeqs.org/orgdirectory", "FilterByTurnoverPageRequest");
+    private static final QName _FilterByTurnoverPageResponse_QNAME = new QName("http://fergoeqs.org/orgdirectory", "FilterByTurnoverPageResponse");
+    private static final QName _OrderOrganizationsPageRequest_QNAME = new QName("http://fergoeqs.org/orgdirectory", "OrderOrganizationsPageRequest");
+    private static final QName _OrderOrganizationsPageResponse_QNAME = new QName("http://fergoeqs.org/orgdirectory", "OrderOrganizationsPageResponse");
 
     public ObjectFactory() {
     }
@@ -35,4 +39,25 @@ public class ObjectFactory {
     public JAXBElement<OrderOrganizationsResponse> createOrderOrganizationsResponse(OrderOrganizationsResponse value) {
         return new JAXBElement<>(_OrderOrganizationsResponse_QNAME, OrderOrganizationsResponse.class, null, value);
     }
+
+    // the page operations take the same request bodies as the string-result ones
+    @XmlElementDecl(namespace = "http://fergoeqs.org/orgdirectory", name = "FilterByTurnoverPageRequest")
+    public JAXBElement<FilterByTurnoverRequest> createFilterByTurnoverPageRequest(FilterByTurnoverRequest value) {
+        return new JAXBElement<>(_FilterByTurnoverPageRequest_QNAME, FilterByTurnoverRequest.class, null, value);
+    }
+
+    @XmlElementDecl(namespace = "http://fergoeqs.org/orgdirectory", name = "FilterByTurnoverPageResponse")
+    public JAXBElement<OrganizationPage> createFilterByTurnoverPageResponse(OrganizationPage value) {
+        return new JAXBElement<>(_FilterByTurnoverPageResponse_QNAME, OrganizationPage.class, null, value);
+    }
+
+    @XmlElementDecl(namespace = "http://fergoeqs.org/orgdirectory", name = "OrderOrganizationsPageRequest")
+    public JAXBElement<OrderOrganizationsRequest> createOrderOrganizationsPageRequest(OrderOrganizationsRequest value) {
+        return new JAXBElement<>(_OrderOrganizationsPageRequest_QNAME, OrderOrganizationsRequest.class, null, value);
+    }
+
+    @XmlElementDecl(namespace = "http://fergoeqs.org/orgdirectory", name = "OrderOrganizationsPageResponse")
+    public JAXBElement<OrganizationPage> createOrderOrganizationsPageResponse(OrganizationPage value) {
+        return new JAXBElement<>(_OrderOrganizationsPageResponse_QNAME, OrganizationPage.class, null, value);
+    }
 }
@@ -4,16 +4,21 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.fergoeqs.dtos.FilterConditionDTO;
-import org.fergoeqs.dtos.FilterRequestDTO;
 import org.fergoeqs.dtos.SortOptionDTO;
-import org.springframework.beans.factory.annotation.Value;
+import org.fergoeqs.service.OrgDirectoryQueryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.server.endpoint.annotation.Endpoint;
 import org.springframework.ws.server.endpoint.annotation.PayloadRoot;
 import org.springframework.ws.server.endpoint.annotation.RequestPayload;
 import org.springframework.ws.server.endpoint.annotation.ResponsePayload;
-import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 
 import javax.xml.bind.JAXBElement;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -21,75 +26,31 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OrgDirectoryEndpoint {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrgDirectoryEndpoint.class);
+
     private static final String NAMESPACE_URI = "http://fergoeqs.org/orgdirectory";
 
-    private final WebClient webClient;
+    private final OrgDirectoryQueryService queryService;
     private final ObjectFactory objectFactory;
     private final ObjectMapper objectMapper;
 
-    @Value("${first-service.base-url}")
-    private String firstServiceBaseUrl;
-
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "FilterByTurnoverRequest")
     @ResponsePayload
     public JAXBElement<FilterByTurnoverResponse> filterByTurnover(@RequestPayload JAXBElement<FilterByTurnoverRequest> requestElement) {
         System.out.println(">>> SOAP FilterByTurnoverRequest received");
-        System.out.println(">>> firstServiceBaseUrl = " + firstServiceBaseUrl);
 
         FilterByTurnoverRequest request = requestElement.getValue();
-        int min = request.getMinAnnualTurnover();
-        int max = request.getMaxAnnualTurnover();
-        
-        if (min > max) {
-            throw new IllegalArgumentException("Invalid turnover range: min > max");
-        }
-
-        List<FilterConditionDTO> filters = new ArrayList<>();
-        
-        if (request.getFilters() != null && request.getFilters().getFilter() != null) {
-            for (FilterCondition filter : request.getFilters().getFilter()) {
-                filters.add(new FilterConditionDTO(
-                        filter.getField(),
-                        filter.getOperator(),
-                        filter.getValue()
-                ));
-            }
-        }
-
-        filters.add(new FilterConditionDTO("annualTurnover", "between", List.of(min, max)));
-
-        List<SortOptionDTO> sort = new ArrayList<>();
-        if (request.getSort() != null && request.getSort().getSortOption() != null) {
-            for (SortOption so : request.getSort().getSortOption()) {
-                sort.add(new SortOptionDTO(
-                        so.getField(),
-                        so.getDirection(),
-                        so.getPriority()
-                ));
-            }
-        }
-
-        Integer page = request.getPage() != null ? request.getPage() : 0;
-        Integer size = request.getSize() != null ? request.getSize() : 20;
-
-        FilterRequestDTO requestDTO = new FilterRequestDTO(filters, sort, page, size);
-        
-        Object result = webClient.post()
-                .uri(firstServiceBaseUrl + "/search")
-                .bodyValue(requestDTO)
-                .retrieve()
-                .bodyToMono(Object.class)
-                .block();
-
-        String resultJson;
-        try {
-            resultJson = objectMapper.writeValueAsString(result);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Failed to serialize result to JSON", e);
-        }
+        Object result = queryService.filterByTurnover(
+                request.getMinAnnualTurnover(),
+                request.getMaxAnnualTurnover(),
+                toFilters(request.getFilters()),
+                toSort(request.getSort()),
+                request.getPage(),
+                request.getSize()
+        );
 
         FilterByTurnoverResponse response = new FilterByTurnoverResponse();
-        response.setResult(resultJson);
+        response.setResult(toJson(result));
 
         return objectFactory.createFilterByTurnoverResponse(response);
     }
@@ -98,22 +59,68 @@ public class OrgDirectoryEndpoint {
     @ResponsePayload
     public JAXBElement<OrderOrganizationsResponse> orderOrganizations(@RequestPayload JAXBElement<OrderOrganizationsRequest> requestElement) {
         System.out.println(">>> SOAP OrderOrganizationsRequest received");
-        
+
+        OrderOrganizationsRequest request = requestElement.getValue();
+        Object result = queryService.orderOrganizations(
+                toSort(request.getSort()),
+                toFilters(request.getFilters()),
+                request.getPage(),
+                request.getSize()
+        );
+
+        OrderOrganizationsResponse response = new OrderOrganizationsResponse();
+        response.setResult(toJson(result));
+
+        return objectFactory.createOrderOrganizationsResponse(response);
+    }
+
+    // typed variants: the page is transcoded into the response payload as the organization service sends it
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "FilterByTurnoverPageRequest")
+    public void filterByTurnoverPage(@RequestPayload JAXBElement<FilterByTurnoverRequest> requestElement,
+                                     MessageContext messageContext) throws IOException, XMLStreamException {
+        FilterByTurnoverRequest request = requestElement.getValue();
+        Flux<DataBuffer> body = queryService.streamFilterByTurnover(
+                request.getMinAnnualTurnover(),
+                request.getMaxAnnualTurnover(),
+                toFilters(request.getFilters()),
+                toSort(request.getSort()),
+                request.getPage(),
+                request.getSize()
+        );
+
+        writePage(body, "FilterByTurnoverPageResponse", messageContext);
+    }
+
+    @PayloadRoot(namespace = NAMESPACE_URI, localPart = "OrderOrganizationsPageRequest")
+    public void orderOrganizationsPage(@RequestPayload JAXBElement<OrderOrganizationsRequest> requestElement,
+                                       MessageContext messageContext) throws IOException, XMLStreamException {
         OrderOrganizationsRequest request = requestElement.getValue();
-        System.out.println(">>> request.getSort() = " + request.getSort());
-        System.out.println(">>> request.getPage() = " + request.getPage());
-        System.out.println(">>> request.getSize() = " + request.getSize());
+        Flux<DataBuffer> body = queryService.streamOrderOrganizations(
+                toSort(request.getSort()),
+                toFilters(request.getFilters()),
+                request.getPage(),
+                request.getSize()
+        );
+
+        writePage(body, "OrderOrganizationsPageResponse", messageContext);
+    }
 
-        if (request.getSort() == null || request.getSort().getSortOption() == null || request.getSort().getSortOption().isEmpty()) {
-            System.err.println(">>> ERROR: Missing sort criteria");
-            throw new IllegalArgumentException("Missing sort criteria");
+    private static void writePage(Flux<DataBuffer> body, String rootName, MessageContext messageContext)
+            throws IOException, XMLStreamException {
+        try {
+            long bytes = OrganizationPageWriter.write(body, rootName, messageContext.getResponse().getPayloadResult());
+            LOGGER.debug("{} written from {} bytes of JSON", rootName, bytes);
+        } catch (IOException | XMLStreamException | RuntimeException e) {
+            // a half-written page must not end up next to the fault
+            messageContext.clearResponse();
+            throw e;
         }
-        
-        System.out.println(">>> sort options count: " + request.getSort().getSortOption().size());
+    }
 
+    private static List<FilterConditionDTO> toFilters(FilterConditions conditions) {
         List<FilterConditionDTO> filters = new ArrayList<>();
-        if (request.getFilters() != null && request.getFilters().getFilter() != null) {
-            for (FilterCondition filter : request.getFilters().getFilter()) {
+        if (conditions != null && conditions.getFilter() != null) {
+            for (FilterCondition filter : conditions.getFilter()) {
                 filters.add(new FilterConditionDTO(
                         filter.getField(),
                         filter.getOperator(),
@@ -121,38 +128,28 @@ public class OrgDirectoryEndpoint {
                 ));
             }
         }
+        return filters;
+    }
 
+    private static List<SortOptionDTO> toSort(SortOptions options) {
         List<SortOptionDTO> sort = new ArrayList<>();
-        for (SortOption so : request.getSort().getSortOption()) {
-            sort.add(new SortOptionDTO(
-                    so.getField(),
-                    so.getDirection(),
-                    so.getPriority()
-            ));
+        if (options != null && options.getSortOption() != null) {
+            for (SortOption so : options.getSortOption()) {
+                sort.add(new SortOptionDTO(
+                        so.getField(),
+                        so.getDirection(),
+                        so.getPriority()
+                ));
+            }
         }
+        return sort;
+    }
 
-        Integer page = request.getPage() != null ? request.getPage() : 0;
-        Integer size = request.getSize() != null ? request.getSize() : 20;
-
-        FilterRequestDTO requestDTO = new FilterRequestDTO(filters, sort, page, size);
-        
-        Object result = webClient.post()
-                .uri(firstServiceBaseUrl + "/search")
-                .bodyValue(requestDTO)
-                .retrieve()
-                .bodyToMono(Object.class)
-                .block();
-
-        String resultJson;
+    private String toJson(Object result) {
         try {
-            resultJson = objectMapper.writeValueAsString(result);
+            return objectMapper.writeValueAsString(result);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to serialize result to JSON", e);
         }
-
-        OrderOrganizationsResponse response = new OrderOrganizationsResponse();
-        response.setResult(resultJson);
-
-        return objectFactory.createOrderOrganizationsResponse(response);
     }
 }
@@ -0,0 +1,110 @@
+package org.fergoeqs.soap;
+
+import javax.xml.bind.annotation.*;
+
+@XmlAccessorType(XmlAccessType.PROPERTY)
+@XmlType(name = "Organization", propOrder = {
+    "id",
+    "name",
+    "coordinates",
+    "annualTurnover",
+    "fullName",
+    "type",
+    "postalAddress",
+    "creationDate",
+    "version"
+})
+public class Organization {
+
+    protected Long id;
+    protected String name;
+    protected Coordinates coordinates;
+    protected Integer annualTurnover;
+    protected String fullName;
+    protected String type;
+    protected Address postalAddress;
+    protected String creationDate;
+    protected Long version;
+
+    @XmlElement(namespace = "http://fergoeqs.org/orgdirectory", required = true)
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long value) {
+        this.id = value;
+    }
+
+    @XmlElement(namespace = "http://fergoeqs.org/orgdirectory", required = true)
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String value) {
+        this.name = value;
+    }
+
+    @XmlElement(namespace = "http://fergoeqs.org/orgdirectory", required = true)
+    public Coordinates getCoordinates() {
+        return coordinates;
+    }
+
+    public void setCoordinates(Coordinates value) {
+        this.coordinates = value;
+    }
+
+    @XmlElement(namespace = "http://fergoeqs.org/orgdirectory")
+    public Integer getAnnualTurnover() {
+        return annualTurnover;
+    }
+
+    public void setAnnualTurnover(Integer value) {
+        this.annualTurnover = value;
+    }
+
+    @XmlElement(namespace = "http://fergoeqs.org/orgdirectory")
+    public String getFullName() {
+        return fullName;
+    }
+
+    public void setFullName(String value) {
+        this.fullName = value;
+    }
+
+    @XmlElement(namespace = "http://fergoeqs.org/orgdirectory")
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String value) {
+        this.type = value;
+    }
+
+    @XmlElement(namespace = "http://fergoeqs.org/orgdirectory")
+    public Address getPostalAddress() {
+        return postalAddress;
+    }
+
+    public void setPostalAddress(Address value) {
+        this.postalAddress = value;
+    }
+
+    @XmlElement(namespace = "http://fergoeqs.org/orgdirectory", required = true)
+    @XmlSchemaType(name = "dateTime")
+    public String getCreationDate() {
+        return creationDate;
+    }
+
+    public void setCreationDate(String value) {
+        this.creationDate = value;
+    }
+
+    @XmlElement(namespace = "http://fergoeqs.org/orgdirectory")
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long value) {
+        this.version = value;
+    }
+}
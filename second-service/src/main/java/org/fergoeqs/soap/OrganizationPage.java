@@ -0,0 +1,104 @@
+package org.fergoeqs.soap;
+
+import javax.xml.bind.annotation.*;
+import java.util.ArrayList;
+import java.util.List;
+
+@XmlAccessorType(XmlAccessType.PROPERTY)
+@XmlType(name = "OrganizationPage", propOrder = {
+    "organization",
+    "totalPages",
+    "totalElements",
+    "page",
+    "size",
+    "nextCursor",
+    "hasNext",
+    "countMode"
+})
+@XmlRootElement(name = "OrganizationPage", namespace = "http://fergoeqs.org/orgdirectory")
+public class OrganizationPage {
+
+    protected List<Organization> organization;
+    protected Integer totalPages;
+    protected Long totalElements;
+    protected Integer page;
+    protected Integer size;
+    protected String nextCursor;
+    protected Boolean hasNext;
+    protected String countMode;
+
+    @XmlElement(namespace = "http://fergoeqs.org/orgdirectory")
+    public List<Organization> getOrganization() {
+        if (organization == null) {
+            organization = new ArrayList<>();
+        }
+        return this.organization;
+    }
+
+    public void setOrganization(List<Organization> organization) {
+        this.organization = organization;
+    }
+
+    @XmlElement(namespace = "http://fergoeqs.org/orgdirectory")
+    public Integer getTotalPages() {
+        return totalPages;
+    }
+
+    public void setTotalPages(Integer value) {
+        this.totalPages = value;
+    }
+
+    @XmlElement(namespace = "http://fergoeqs.org/orgdirectory")
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(Long value) {
+        this.totalElements = value;
+    }
+
+    @XmlElement(namespace = "http://fergoeqs.org/orgdirectory")
+    public Integer getPage() {
+        return page;
+    }
+
+    public void setPage(Integer value) {
+        this.page = value;
+    }
+
+    @XmlElement(namespace = "http://fergoeqs.org/orgdirectory")
+    public Integer getSize() {
+        return size;
+    }
+
+    public void setSize(Integer value) {
+        this.size = value;
+    }
+
+    @XmlElement(namespace = "http://fergoeqs.org/orgdirectory")
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String value) {
+        this.nextCursor = value;
+    }
+
+    @XmlElement(namespace = "http://fergoeqs.org/orgdirectory")
+    public Boolean getHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(Boolean value) {
+        this.hasNext = value;
+    }
+
+    @XmlElement(namespace = "http://fergoeqs.org/orgdirectory")
+    public String getCountMode() {
+        return countMode;
+    }
+
+    public void setCountMode(String value) {
+        this.countMode = value;
+    }
+}
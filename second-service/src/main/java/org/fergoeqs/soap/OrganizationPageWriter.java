@@ -0,0 +1,142 @@
+package org.fergoeqs.soap;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Result;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+
+/**
+ * Writes an organization-service page as a typed OrganizationPage element while its JSON is still arriving.
+ * Each chunk of the response body goes through Jackson's non-blocking parser and every token becomes a
+ * StAX event straight away, so no row is ever held as an object, a JSON string or an anyType result.
+ * JSON fields map to elements of the same name; the "organizations" array becomes repeated "organization"
+ * elements and null fields are left out, which is the shape orgdirectory.xsd gives OrganizationPage.
+ */
+public final class OrganizationPageWriter {
+
+    private static final String NAMESPACE_URI = "http://fergoeqs.org/orgdirectory";
+    private static final String PREFIX = "tns";
+
+    private static final Map<String, String> ITEM_NAMES = Map.of("organizations", "organization");
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    private OrganizationPageWriter() {
+    }
+
+    /** Writes {@code body} under a root element named {@code rootName} and returns the number of JSON bytes read. */
+    public static long write(Flux<DataBuffer> body, String rootName, Result result) throws IOException, XMLStreamException {
+        XMLStreamWriter writer = XML_OUTPUT_FACTORY.createXMLStreamWriter(result);
+        JsonParser parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+        ByteArrayFeeder feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        Transcoder transcoder = new Transcoder(writer);
+        // buffers the subscription has prefetched but this thread has not taken yet, in arrival order;
+        // cancelling the stream drops them from its queue without releasing them
+        Queue<DataBuffer> unread = new ConcurrentLinkedQueue<>();
+        long bytes = 0;
+        try {
+            writer.writeStartElement(PREFIX, rootName, NAMESPACE_URI);
+            writer.writeNamespace(PREFIX, NAMESPACE_URI);
+
+            // closing the stream cancels the subscription, so a parse or write failure also lets go of the connection
+            try (Stream<DataBuffer> buffers = body.doOnNext(unread::add).toStream()) {
+                Iterator<DataBuffer> iterator = buffers.iterator();
+                while (iterator.hasNext()) {
+                    DataBuffer buffer = iterator.next();
+                    unread.poll();
+                    byte[] chunk = new byte[buffer.readableByteCount()];
+                    buffer.read(chunk);
+                    DataBufferUtils.release(buffer);
+                    bytes += chunk.length;
+
+                    feeder.feedInput(chunk, 0, chunk.length);
+                    transcoder.drain(parser);
+                }
+            }
+            feeder.endOfInput();
+            transcoder.drain(parser);
+
+            writer.writeEndElement();
+            writer.flush();
+            return bytes;
+        } finally {
+            DataBuffer buffer;
+            while ((buffer = unread.poll()) != null) {
+                DataBufferUtils.release(buffer);
+            }
+            parser.close();
+            writer.close();
+        }
+    }
+
+    private static final class Transcoder {
+
+        private final XMLStreamWriter writer;
+        // one entry per open JSON container: the element name its items get, or "" for an object
+        private final Deque<String> containers = new ArrayDeque<>();
+        private String fieldName;
+
+        Transcoder(XMLStreamWriter writer) {
+            this.writer = writer;
+        }
+
+        // handles every token the parser can produce from the bytes fed so far
+        void drain(JsonParser parser) throws IOException, XMLStreamException {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                switch (token) {
+                    case FIELD_NAME:
+                        fieldName = parser.getCurrentName();
+                        break;
+                    case START_OBJECT:
+                        if (!containers.isEmpty()) {
+                            writer.writeStartElement(PREFIX, elementName(), NAMESPACE_URI);
+                        }
+                        containers.push("");
+                        break;
+                    case END_OBJECT:
+                        containers.pop();
+                        if (!containers.isEmpty()) {
+                            writer.writeEndElement();
+                        }
+                        break;
+                    case START_ARRAY:
+                        String name = elementName();
+                        containers.push(ITEM_NAMES.getOrDefault(name, name));
+                        break;
+                    case END_ARRAY:
+                        containers.pop();
+                        break;
+                    case VALUE_NULL:
+                        break;
+                    default:
+                        writer.writeStartElement(PREFIX, elementName(), NAMESPACE_URI);
+                        writer.writeCharacters(parser.getText());
+                        writer.writeEndElement();
+                }
+            }
+        }
+
+        private String elementName() {
+            String container = containers.peek();
+            return container == null || container.isEmpty() ? fieldName : container;
+        }
+    }
+}